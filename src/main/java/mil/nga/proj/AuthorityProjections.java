@@ -1,9 +1,9 @@
 package mil.nga.proj;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Collection of projections for a single coordinate authority
@@ -20,7 +20,7 @@ public class AuthorityProjections {
 	/**
 	 * Projections by code
 	 */
-	private Map<String, Projection> projections = new HashMap<>();
+	private Map<String, Projection> projections = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructor
@@ -0,0 +1,43 @@
+package mil.nga.proj;
+
+/**
+ * Bulk transform kernel execution. Runs the scalar kernels, with a Java 17+
+ * multi-release implementation vectorizing the kernels when the
+ * jdk.incubator.vector module is available.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+class BulkKernels {
+
+	/**
+	 * Check if kernels are vectorized
+	 *
+	 * @return true if vectorized
+	 */
+	static boolean isVectorized() {
+		return false;
+	}
+
+	/**
+	 * Transform the interleaved coordinates with the kernel
+	 *
+	 * @param kernel
+	 *            transform kernel
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 */
+	static void transform(TransformKernel kernel, double[] src, int srcOffset,
+			double[] dst, int dstOffset, int count) {
+		kernel.transform(src, srcOffset, dst, dstOffset, count);
+	}
+
+}
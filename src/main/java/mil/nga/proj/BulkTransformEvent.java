@@ -0,0 +1,51 @@
+package mil.nga.proj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a {@link ProjectionTransform} bulk coordinate
+ * batch
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+@Name(BulkTransformEvent.NAME)
+@Label("Bulk Transform")
+@Category("Projections")
+@Description("Bulk transform of a batch of interleaved coordinates")
+class BulkTransformEvent extends Event {
+
+	/**
+	 * Event name
+	 */
+	static final String NAME = "mil.nga.proj.BulkTransform";
+
+	/**
+	 * From projection
+	 */
+	@Label("From")
+	String from;
+
+	/**
+	 * To projection
+	 */
+	@Label("To")
+	String to;
+
+	/**
+	 * Coordinate dimension
+	 */
+	@Label("Dimension")
+	int dimension;
+
+	/**
+	 * Number of coordinates
+	 */
+	@Label("Point Count")
+	int count;
+
+}
@@ -0,0 +1,45 @@
+package mil.nga.proj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a {@link CRSParser} CRS object conversion into a
+ * proj4 coordinate reference system
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+@Name(CRSConversionEvent.NAME)
+@Label("CRS Conversion")
+@Category("Projections")
+@Description("Conversion of a CRS object into a proj4 coordinate reference system")
+class CRSConversionEvent extends Event {
+
+	/**
+	 * Event name
+	 */
+	static final String NAME = "mil.nga.proj.CRSConversion";
+
+	/**
+	 * CRS name
+	 */
+	@Label("CRS Name")
+	String name;
+
+	/**
+	 * CRS type
+	 */
+	@Label("CRS Type")
+	String crsType;
+
+	/**
+	 * Converted through proj4 params text
+	 */
+	@Label("As Params")
+	boolean asParams;
+
+}
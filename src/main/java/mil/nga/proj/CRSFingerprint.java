@@ -0,0 +1,184 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.datum.Datum;
+import org.locationtech.proj4j.datum.Ellipsoid;
+import org.locationtech.proj4j.proj.LongLatProjection;
+import org.locationtech.proj4j.units.Unit;
+
+/**
+ * Canonical fingerprint of a proj4j Coordinate Reference System. Built from
+ * the resolved projection, ellipsoid, and datum values so that mathematically
+ * equivalent coordinate reference systems created from differently written
+ * parameters (authority codes, aliases, parameter order, defaults) share the
+ * same fingerprint.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class CRSFingerprint {
+
+	/**
+	 * Parameters represented by the resolved values of the fingerprint
+	 */
+	private static final Set<String> RESOLVED_PARAMETERS = new HashSet<>(
+			Arrays.asList("proj", "datum", "ellps", "a", "b", "rf", "f", "es",
+					"e", "R", "towgs84", "lat_0", "lon_0", "lat_1", "lat_2",
+					"lat_ts", "x_0", "y_0", "k", "k_0", "units", "to_meter",
+					"axis", "pm", "zone", "alpha", "lonc", "no_defs",
+					"wktext", "type"));
+
+	/**
+	 * Create the canonical fingerprint of the coordinate reference system
+	 *
+	 * @param crs
+	 *            coordinate reference system
+	 * @return fingerprint
+	 */
+	public static String create(CoordinateReferenceSystem crs) {
+
+		StringBuilder fingerprint = new StringBuilder();
+
+		org.locationtech.proj4j.proj.Projection projection = crs
+				.getProjection();
+		if (projection != null) {
+
+			fingerprint.append(projection.getClass().getName());
+
+			Ellipsoid ellipsoid = projection.getEllipsoid();
+			if (ellipsoid != null) {
+				append(fingerprint, "a", ellipsoid.getEquatorRadius());
+				append(fingerprint, "es",
+						ellipsoid.getEccentricitySquared());
+			}
+
+			append(fingerprint, "lat_0", projection.getProjectionLatitude());
+			append(fingerprint, "lon_0", projection.getProjectionLongitude());
+			append(fingerprint, "lat_1", projection.getProjectionLatitude1());
+			append(fingerprint, "lat_2", projection.getProjectionLatitude2());
+			append(fingerprint, "lat_ts", projection.getTrueScaleLatitude());
+			append(fingerprint, "x_0", projection.getFalseEasting());
+			append(fingerprint, "y_0", projection.getFalseNorthing());
+			append(fingerprint, "k", projection.getScaleFactor());
+			append(fingerprint, "to_meter", 1.0 / projection.getFromMetres());
+			append(fingerprint, "alpha", projection.getAlpha());
+			append(fingerprint, "lonc", projection.getLonC());
+			append(fingerprint, "min_lat", projection.getMinLatitude());
+			append(fingerprint, "max_lat", projection.getMaxLatitude());
+			append(fingerprint, "min_lon", projection.getMinLongitude());
+			append(fingerprint, "max_lon", projection.getMaxLongitude());
+
+			Unit unit = projection.getUnits();
+			if (unit != null) {
+				append(fingerprint, "units", unit.abbreviation);
+				append(fingerprint, "unit_value", unit.value);
+			}
+
+			ProjCoordinate axis = new ProjCoordinate(1.0, 2.0, 3.0);
+			projection.getAxisOrder().toENU(axis);
+			append(fingerprint, "axis",
+					axis.x + "," + axis.y + "," + axis.z);
+
+			ProjCoordinate meridian = new ProjCoordinate(0.0, 0.0);
+			projection.getPrimeMeridian().toGreenwich(meridian);
+			append(fingerprint, "pm", meridian.x);
+
+		}
+
+		Datum datum = crs.getDatum();
+		if (datum != null) {
+			append(fingerprint, "datum_type", datum.getTransformType());
+			double[] transform = datum.getTransformToWGS84();
+			if (transform != null) {
+				append(fingerprint, "towgs84", Arrays.toString(transform));
+			}
+			Ellipsoid ellipsoid = datum.getEllipsoid();
+			if (ellipsoid != null) {
+				append(fingerprint, "datum_a", ellipsoid.getEquatorRadius());
+				append(fingerprint, "datum_es",
+						ellipsoid.getEccentricitySquared());
+			}
+		}
+
+		// Parameters not represented by resolved values, such as grid shift
+		// files and projection specific values, are included as written
+		String[] parameters = crs.getParameters();
+		if (parameters != null) {
+			Set<String> unresolved = new TreeSet<>();
+			for (String parameter : parameters) {
+				String name = parameter;
+				if (name.startsWith("+")) {
+					name = name.substring(1);
+				}
+				int equals = name.indexOf('=');
+				String key = equals >= 0 ? name.substring(0, equals) : name;
+				if (!key.isEmpty() && !RESOLVED_PARAMETERS.contains(key)) {
+					unresolved.add(name);
+				}
+			}
+			for (String parameter : unresolved) {
+				fingerprint.append(" +").append(parameter);
+			}
+		}
+
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Determine if the fingerprint of the coordinate reference system
+	 * represents its full projection state. Projection specific values not
+	 * exposed by the generic proj4j projection getters are only represented
+	 * through the written parameters, so coordinate reference systems created
+	 * without parameters (such as converted well-known text) are complete
+	 * only for geographic projections.
+	 *
+	 * @param crs
+	 *            coordinate reference system
+	 * @return true if complete
+	 */
+	public static boolean isComplete(CoordinateReferenceSystem crs) {
+		org.locationtech.proj4j.proj.Projection projection = crs
+				.getProjection();
+		return crs.getParameters() != null || projection == null
+				|| projection.getClass() == LongLatProjection.class;
+	}
+
+	/**
+	 * Determine if the coordinate reference systems are mathematically
+	 * equivalent. Distinct coordinate reference systems are only equivalent
+	 * when both fingerprints are complete and equal.
+	 *
+	 * @param crs1
+	 *            coordinate reference system 1
+	 * @param crs2
+	 *            coordinate reference system 2
+	 * @return true if equivalent
+	 */
+	public static boolean equivalent(CoordinateReferenceSystem crs1,
+			CoordinateReferenceSystem crs2) {
+		return crs1 == crs2 || (isComplete(crs1) && isComplete(crs2)
+				&& create(crs1).equals(create(crs2)));
+	}
+
+	/**
+	 * Append a fingerprint value
+	 *
+	 * @param fingerprint
+	 *            fingerprint builder
+	 * @param key
+	 *            value key
+	 * @param value
+	 *            value
+	 */
+	private static void append(StringBuilder fingerprint, String key,
+			Object value) {
+		fingerprint.append(" ").append(key).append("=").append(value);
+	}
+
+}
@@ -172,6 +172,9 @@ public class CRSParser {
 	 */
 	public static CoordinateReferenceSystem convert(CRS crsObject) {
 
+		CRSConversionEvent event = new CRSConversionEvent();
+		event.begin();
+
 		CoordinateReferenceSystem crs = null;
 
 		switch (crsObject.getType()) {
@@ -193,6 +196,8 @@ public class CRSParser {
 
 		}
 
+		commit(event, crsObject, false);
+
 		return crs;
 	}
 
@@ -207,6 +212,9 @@ public class CRSParser {
 	 */
 	public static CoordinateReferenceSystem convertAsParams(CRS crsObject) {
 
+		CRSConversionEvent event = new CRSConversionEvent();
+		event.begin();
+
 		CoordinateReferenceSystem crs = null;
 
 		String params = ProjParser.paramsText(crsObject);
@@ -215,9 +223,32 @@ public class CRSParser {
 					.createFromParameters(crsObject.getName(), params);
 		}
 
+		commit(event, crsObject, true);
+
 		return crs;
 	}
 
+	/**
+	 * Commit a CRS conversion flight recorder event if recording
+	 * 
+	 * @param event
+	 *            begun conversion event
+	 * @param crsObject
+	 *            converted CRS object
+	 * @param asParams
+	 *            true if converted through proj4 params
+	 */
+	private static void commit(CRSConversionEvent event, CRS crsObject,
+			boolean asParams) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.name = crsObject.getName();
+			event.crsType = crsObject.getType().name();
+			event.asParams = asParams;
+			event.commit();
+		}
+	}
+
 	/**
 	 * Convert a geodetic or geographic crs into a proj4 coordinate reference
 	 * system
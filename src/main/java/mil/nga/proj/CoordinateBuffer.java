@@ -0,0 +1,157 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of interleaved [x, y, ...] coordinates, backed by a
+ * primitive array reused across clears
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class CoordinateBuffer {
+
+	/**
+	 * Default coordinate capacity
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Coordinates as [x, y, ...]
+	 */
+	private double[] coordinates;
+
+	/**
+	 * Number of coordinates
+	 */
+	private int size = 0;
+
+	/**
+	 * Constructor
+	 */
+	public CoordinateBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            initial coordinate capacity
+	 */
+	public CoordinateBuffer(int capacity) {
+		coordinates = new double[Math.max(1, capacity) * 2];
+	}
+
+	/**
+	 * Add a coordinate
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 */
+	public void add(double x, double y) {
+		if (size * 2 == coordinates.length) {
+			ensureCapacity(size + 1);
+		}
+		coordinates[size * 2] = x;
+		coordinates[size * 2 + 1] = y;
+		size++;
+	}
+
+	/**
+	 * Ensure capacity for the number of coordinates
+	 *
+	 * @param capacity
+	 *            coordinate capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity * 2 > coordinates.length) {
+			coordinates = Arrays.copyOf(coordinates,
+					Math.max(capacity, size * 2) * 2);
+		}
+	}
+
+	/**
+	 * Get the number of coordinates
+	 *
+	 * @return coordinate count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the buffer has no coordinates
+	 *
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the x coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return x coordinate
+	 */
+	public double getX(int index) {
+		checkIndex(index);
+		return coordinates[index * 2];
+	}
+
+	/**
+	 * Get the y coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return y coordinate
+	 */
+	public double getY(int index) {
+		checkIndex(index);
+		return coordinates[index * 2 + 1];
+	}
+
+	/**
+	 * Get the backing coordinates array as [x, y, ...], valid through
+	 * {@link #size()} coordinates until the buffer grows
+	 *
+	 * @return backing coordinates array
+	 */
+	public double[] getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Copy the coordinates to a new array
+	 *
+	 * @return coordinates as [x, y, ...]
+	 */
+	public double[] toArray() {
+		return Arrays.copyOf(coordinates, size * 2);
+	}
+
+	/**
+	 * Remove all coordinates, keeping the capacity
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Check the coordinate index
+	 *
+	 * @param index
+	 *            coordinate index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", size: " + size);
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+
+/**
+ * Growable parts of interleaved [x, y, ...] coordinates, such as the line
+ * strings or rings of a geometry split at the antimeridian, sharing a single
+ * {@link CoordinateBuffer}
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class CoordinateParts {
+
+	/**
+	 * Coordinates of all parts
+	 */
+	private final CoordinateBuffer coordinates;
+
+	/**
+	 * Start coordinate index of each part
+	 */
+	private int[] starts = new int[4];
+
+	/**
+	 * Number of parts
+	 */
+	private int parts = 0;
+
+	/**
+	 * Constructor
+	 */
+	public CoordinateParts() {
+		this(new CoordinateBuffer());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param coordinates
+	 *            coordinate buffer to add part coordinates to, cleared
+	 */
+	public CoordinateParts(CoordinateBuffer coordinates) {
+		this.coordinates = coordinates;
+		coordinates.clear();
+	}
+
+	/**
+	 * Start a new part, ending the current part
+	 */
+	public void startPart() {
+		if (parts == starts.length) {
+			starts = Arrays.copyOf(starts, parts * 2);
+		}
+		starts[parts++] = coordinates.size();
+	}
+
+	/**
+	 * Add a coordinate to the current part
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 */
+	public void add(double x, double y) {
+		if (parts == 0) {
+			throw new IllegalStateException("No part has been started");
+		}
+		coordinates.add(x, y);
+	}
+
+	/**
+	 * Get the number of parts
+	 *
+	 * @return part count
+	 */
+	public int numParts() {
+		return parts;
+	}
+
+	/**
+	 * Get the coordinate buffer of all parts
+	 *
+	 * @return coordinate buffer
+	 */
+	public CoordinateBuffer getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Get the start coordinate index of the part in the coordinate buffer
+	 *
+	 * @param part
+	 *            part index
+	 * @return start coordinate index
+	 */
+	public int getPartStart(int part) {
+		checkPart(part);
+		return starts[part];
+	}
+
+	/**
+	 * Get the number of coordinates in the part
+	 *
+	 * @param part
+	 *            part index
+	 * @return part coordinate count
+	 */
+	public int getPartSize(int part) {
+		checkPart(part);
+		int end = part + 1 < parts ? starts[part + 1] : coordinates.size();
+		return end - starts[part];
+	}
+
+	/**
+	 * Copy the part coordinates to a new array
+	 *
+	 * @param part
+	 *            part index
+	 * @return part coordinates as [x, y, ...]
+	 */
+	public double[] getPart(int part) {
+		int start = getPartStart(part) * 2;
+		return Arrays.copyOfRange(coordinates.getCoordinates(), start,
+				start + getPartSize(part) * 2);
+	}
+
+	/**
+	 * Remove all parts, keeping the capacity
+	 */
+	public void clear() {
+		parts = 0;
+		coordinates.clear();
+	}
+
+	/**
+	 * Check the part index
+	 *
+	 * @param part
+	 *            part index
+	 */
+	private void checkPart(int part) {
+		if (part < 0 || part >= parts) {
+			throw new IndexOutOfBoundsException(
+					"Part: " + part + ", parts: " + parts);
+		}
+	}
+
+}
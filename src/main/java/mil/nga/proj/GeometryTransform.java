@@ -0,0 +1,757 @@
+package mil.nga.proj;
+
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.units.Units;
+
+/**
+ * Line string and polygon ring transforms of interleaved [x, y, ...]
+ * coordinates, producing geometries fit for rendering in the target
+ * projection. Work arrays and coordinates are reused between calls, so
+ * transforms allocate nothing per vertex. Not thread safe, use a geometry
+ * transform per thread.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class GeometryTransform {
+
+	/**
+	 * Margin applied to the local target per source unit scale when skipping
+	 * source vertices, allowing for scale change between transformed vertices
+	 */
+	private static final double SCALE_MARGIN = 2.0;
+
+	/**
+	 * Maximum densification subdivision depth of a segment, at most 2^depth
+	 * pieces per source segment
+	 */
+	private static final int MAX_DENSIFY_DEPTH = 10;
+
+	/**
+	 * Projection transform
+	 */
+	private final ProjectionTransform transform;
+
+	/**
+	 * Reusable source coordinate
+	 */
+	private final ProjCoordinate from = new ProjCoordinate();
+
+	/**
+	 * Reusable target coordinate
+	 */
+	private final ProjCoordinate to = new ProjCoordinate();
+
+	/**
+	 * Reusable simplification keep flags
+	 */
+	private boolean[] keep = new boolean[0];
+
+	/**
+	 * Reusable simplification segment stack of start and end indices
+	 */
+	private int[] stack = new int[0];
+
+	/**
+	 * Densification stack of pending segment end points as [source x, source
+	 * y, target x, target y, ...]
+	 */
+	private final double[] densifyPoints = new double[(MAX_DENSIFY_DEPTH + 1)
+			* 4];
+
+	/**
+	 * Densification stack of the subdivision depth of the segment ending at
+	 * each pending end point
+	 */
+	private final int[] densifyDepths = new int[MAX_DENSIFY_DEPTH + 1];
+
+	/**
+	 * Constructor
+	 *
+	 * @param transform
+	 *            projection transform
+	 */
+	public GeometryTransform(ProjectionTransform transform) {
+		this.transform = transform;
+	}
+
+	/**
+	 * Get the projection transform
+	 *
+	 * @return projection transform
+	 */
+	public ProjectionTransform getTransform() {
+		return transform;
+	}
+
+	/**
+	 * Transform and simplify a line string or closed ring, keeping the
+	 * vertices needed to stay within the tolerance in target units
+	 *
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @param tolerance
+	 *            simplification tolerance in target projection units
+	 * @return simplified target coordinates as [x, y, ...]
+	 */
+	public double[] simplify(double[] coordinates, double tolerance) {
+		int count = validateCount(coordinates);
+		double[] simplified = new double[coordinates.length];
+		int simplifiedCount = simplify(coordinates, 0, count, tolerance,
+				simplified, 0);
+		double[] result = simplified;
+		if (simplifiedCount < count) {
+			result = new double[simplifiedCount * 2];
+			System.arraycopy(simplified, 0, result, 0, result.length);
+		}
+		return result;
+	}
+
+	/**
+	 * Transform and simplify a line string or closed ring into the
+	 * destination array, keeping the vertices needed to stay within the
+	 * tolerance in target units. Vertices closer to the previous kept vertex
+	 * than the tolerance, estimated with the local target per source unit
+	 * scale, are skipped without being transformed. The remaining vertices
+	 * are simplified with Douglas-Peucker in target units. The first and last
+	 * vertices are always kept, and rings smaller than the tolerance may
+	 * collapse below four vertices. The source and destination may be the
+	 * same array with the same offset to simplify in place.
+	 *
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 * @param tolerance
+	 *            simplification tolerance in target projection units
+	 * @param dst
+	 *            destination coordinates, with room for count coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @return number of simplified coordinates written
+	 */
+	public int simplify(double[] src, int srcOffset, int count,
+			double tolerance, double[] dst, int dstOffset) {
+
+		if (count <= 2 || !(tolerance > 0.0)) {
+			transform.transform(src, srcOffset, dst, dstOffset, 2, count);
+			return count;
+		}
+
+		double toleranceSquared = tolerance * tolerance;
+
+		// Radial pass, transforming only vertices that may be kept
+		int last = count - 1;
+		double sourceX = src[srcOffset];
+		double sourceY = src[srcOffset + 1];
+		transformVertex(sourceX, sourceY, dst, dstOffset);
+		int kept = 1;
+		double scale = Double.NaN;
+		for (int i = 1; i < count; i++) {
+			int srcIndex = srcOffset + i * 2;
+			double x = src[srcIndex];
+			double y = src[srcIndex + 1];
+			double sourceDistance = Math.hypot(x - sourceX, y - sourceY);
+			if (i < last && scale * SCALE_MARGIN * sourceDistance < tolerance) {
+				continue;
+			}
+			int dstIndex = dstOffset + kept * 2;
+			transformVertex(x, y, dst, dstIndex);
+			double dx = dst[dstIndex] - dst[dstIndex - 2];
+			double dy = dst[dstIndex + 1] - dst[dstIndex - 1];
+			double targetDistanceSquared = dx * dx + dy * dy;
+			if (sourceDistance > 0.0 && targetDistanceSquared > 0.0) {
+				scale = Math.sqrt(targetDistanceSquared) / sourceDistance;
+			}
+			if (i == last || targetDistanceSquared >= toleranceSquared) {
+				sourceX = x;
+				sourceY = y;
+				kept++;
+			}
+		}
+
+		return douglasPeucker(dst, dstOffset, kept, toleranceSquared);
+	}
+
+	/**
+	 * Transform and adaptively densify a line string or closed ring, so the
+	 * transformed segments stay within the tolerance of the projected curve
+	 *
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @param tolerance
+	 *            densification tolerance in target projection units
+	 * @return densified target coordinates as [x, y, ...]
+	 */
+	public double[] densify(double[] coordinates, double tolerance) {
+		int count = validateCount(coordinates);
+		CoordinateBuffer buffer = new CoordinateBuffer(count * 2);
+		densify(coordinates, 0, count, tolerance, buffer);
+		return buffer.toArray();
+	}
+
+	/**
+	 * Transform and adaptively densify a line string or closed ring, adding
+	 * the target coordinates to the buffer. The projected midpoint of each
+	 * source segment is compared with the transformed chord, and the segment
+	 * is recursively subdivided only where the deviation is above the
+	 * tolerance, up to 1024 pieces per segment.
+	 * Segments that stay straight in the target projection add no vertices.
+	 *
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 * @param tolerance
+	 *            densification tolerance in target projection units
+	 * @param buffer
+	 *            buffer to add the target coordinates to
+	 * @return number of coordinates added
+	 */
+	public int densify(double[] src, int srcOffset, int count,
+			double tolerance, CoordinateBuffer buffer) {
+
+		int start = buffer.size();
+		if (count == 0) {
+			return 0;
+		}
+
+		double toleranceSquared = tolerance * tolerance;
+		boolean subdivide = tolerance > 0.0;
+
+		double x = src[srcOffset];
+		double y = src[srcOffset + 1];
+		transform(x, y);
+		double targetX = to.x;
+		double targetY = to.y;
+		buffer.add(targetX, targetY);
+
+		for (int i = 1; i < count; i++) {
+
+			int srcIndex = srcOffset + i * 2;
+			transform(src[srcIndex], src[srcIndex + 1]);
+			densifyPoints[0] = src[srcIndex];
+			densifyPoints[1] = src[srcIndex + 1];
+			densifyPoints[2] = to.x;
+			densifyPoints[3] = to.y;
+			densifyDepths[0] = 0;
+			int size = 1;
+
+			// Depth first over the pending end points, subdividing the
+			// segment from the current point to the top end point
+			while (size > 0) {
+				int top = (size - 1) * 4;
+				double endX = densifyPoints[top];
+				double endY = densifyPoints[top + 1];
+				double endTargetX = densifyPoints[top + 2];
+				double endTargetY = densifyPoints[top + 3];
+				int depth = densifyDepths[size - 1];
+
+				if (subdivide && depth < MAX_DENSIFY_DEPTH) {
+					double midX = (x + endX) / 2.0;
+					double midY = (y + endY) / 2.0;
+					transform(midX, midY);
+					if (segmentDistanceSquared(to.x, to.y, targetX, targetY,
+							endTargetX, endTargetY) > toleranceSquared) {
+						densifyDepths[size - 1] = depth + 1;
+						int next = size * 4;
+						densifyPoints[next] = midX;
+						densifyPoints[next + 1] = midY;
+						densifyPoints[next + 2] = to.x;
+						densifyPoints[next + 3] = to.y;
+						densifyDepths[size] = depth + 1;
+						size++;
+						continue;
+					}
+				}
+
+				buffer.add(endTargetX, endTargetY);
+				x = endX;
+				y = endY;
+				targetX = endTargetX;
+				targetY = endTargetY;
+				size--;
+			}
+		}
+
+		return buffer.size() - start;
+	}
+
+	/**
+	 * Transform a longitude latitude line string, normalizing longitudes into
+	 * [-180, 180] and splitting the line into parts where it crosses the
+	 * antimeridian, in a single pass over the coordinates. Each crossing ends
+	 * the current part and starts the next part at the interpolated crossing
+	 * latitude on the opposite side of the antimeridian.
+	 *
+	 * @param coordinates
+	 *            coordinates as [longitude, latitude, ...] in degrees
+	 * @return target coordinate parts
+	 */
+	public CoordinateParts transformLine(double[] coordinates) {
+		CoordinateParts parts = new CoordinateParts();
+		transformLine(coordinates, 0, validateCount(coordinates), parts);
+		return parts;
+	}
+
+	/**
+	 * Transform a longitude latitude line string into the parts, normalizing
+	 * longitudes into [-180, 180] and splitting the line into parts where it
+	 * crosses the antimeridian, in a single pass over the coordinates
+	 *
+	 * @param src
+	 *            source coordinates as [longitude, latitude, ...] in degrees
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 * @param parts
+	 *            coordinate parts to add the target parts to
+	 * @return number of parts added
+	 */
+	public int transformLine(double[] src, int srcOffset, int count,
+			CoordinateParts parts) {
+
+		validateGeographic();
+
+		int start = parts.numParts();
+		if (count > 0) {
+			parts.startPart();
+			double longitude = ProjectionConstants
+					.normalizeLongitude(src[srcOffset]);
+			double latitude = src[srcOffset + 1];
+			addVertex(longitude, latitude, parts);
+			for (int i = 1; i < count; i++) {
+				int srcIndex = srcOffset + i * 2;
+				double nextLongitude = ProjectionConstants
+						.normalizeLongitude(src[srcIndex]);
+				double nextLatitude = src[srcIndex + 1];
+				if (crossesAntimeridian(longitude, nextLongitude)) {
+					double edge = antimeridianEdge(longitude);
+					double crossingLatitude = crossingLatitude(longitude,
+							latitude, nextLongitude, nextLatitude);
+					endPart(longitude, edge, crossingLatitude, parts, false);
+					startPart(nextLongitude, -edge, crossingLatitude, parts);
+				}
+				addVertex(nextLongitude, nextLatitude, parts);
+				longitude = nextLongitude;
+				latitude = nextLatitude;
+			}
+		}
+
+		return parts.numParts() - start;
+	}
+
+	/**
+	 * Transform a closed longitude latitude polygon ring, normalizing
+	 * longitudes into [-180, 180] and splitting the ring where it crosses the
+	 * antimeridian. See
+	 * {@link #transformRing(double[], int, int, CoordinateParts)}.
+	 *
+	 * @param coordinates
+	 *            closed ring coordinates as [longitude, latitude, ...] in
+	 *            degrees
+	 * @return target coordinate parts
+	 */
+	public CoordinateParts transformRing(double[] coordinates) {
+		CoordinateParts parts = new CoordinateParts();
+		transformRing(coordinates, 0, validateCount(coordinates), parts);
+		return parts;
+	}
+
+	/**
+	 * Transform a closed longitude latitude polygon ring into the parts,
+	 * normalizing longitudes into [-180, 180] and splitting the ring where it
+	 * crosses the antimeridian. A ring that crosses is traversed from its
+	 * first crossing, so every part runs from the antimeridian back to the
+	 * antimeridian without merging parts, and parts starting and ending on
+	 * the same side are closed along the antimeridian. Parts of rings
+	 * enclosing a pole, crossing an odd number of times, are left open.
+	 *
+	 * @param src
+	 *            source closed ring coordinates as [longitude, latitude, ...]
+	 *            in degrees
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 * @param parts
+	 *            coordinate parts to add the target parts to
+	 * @return number of parts added
+	 */
+	public int transformRing(double[] src, int srcOffset, int count,
+			CoordinateParts parts) {
+
+		validateGeographic();
+
+		// Ring vertices without the closing vertex
+		int vertices = count;
+		if (count > 1 && src[srcOffset] == src[srcOffset + count * 2 - 2]
+				&& src[srcOffset + 1] == src[srcOffset + count * 2 - 1]) {
+			vertices--;
+		}
+
+		// Find the first crossing
+		int crossing = -1;
+		for (int i = 0; i < vertices && vertices > 1; i++) {
+			int next = (i + 1) % vertices;
+			if (crossesAntimeridian(
+					ProjectionConstants
+							.normalizeLongitude(src[srcOffset + i * 2]),
+					ProjectionConstants
+							.normalizeLongitude(src[srcOffset + next * 2]))) {
+				crossing = i;
+				break;
+			}
+		}
+		if (crossing < 0) {
+			return transformLine(src, srcOffset, count, parts);
+		}
+
+		int start = parts.numParts();
+
+		int index = srcOffset + crossing * 2;
+		double longitude = ProjectionConstants
+				.normalizeLongitude(src[index]);
+		double latitude = src[index + 1];
+		index = srcOffset + ((crossing + 1) % vertices) * 2;
+		double firstLongitude = ProjectionConstants
+				.normalizeLongitude(src[index]);
+		double firstLatitude = src[index + 1];
+		double edge = antimeridianEdge(longitude);
+		double firstCrossingLatitude = crossingLatitude(longitude, latitude,
+				firstLongitude, firstLatitude);
+
+		// Start after the first crossing, ending with the first crossing
+		startPart(firstLongitude, -edge, firstCrossingLatitude, parts);
+		double partEdge = -edge;
+		longitude = firstLongitude;
+		latitude = firstLatitude;
+		addVertex(longitude, latitude, parts);
+		for (int i = 2; i <= vertices; i++) {
+			index = srcOffset + ((crossing + i) % vertices) * 2;
+			double nextLongitude = ProjectionConstants
+					.normalizeLongitude(src[index]);
+			double nextLatitude = src[index + 1];
+			if (crossesAntimeridian(longitude, nextLongitude)) {
+				edge = antimeridianEdge(longitude);
+				double crossingLatitude = crossingLatitude(longitude,
+						latitude, nextLongitude, nextLatitude);
+				endPart(longitude, edge, crossingLatitude, parts,
+						partEdge == edge);
+				startPart(nextLongitude, -edge, crossingLatitude, parts);
+				partEdge = -edge;
+			}
+			addVertex(nextLongitude, nextLatitude, parts);
+			longitude = nextLongitude;
+			latitude = nextLatitude;
+		}
+		edge = antimeridianEdge(longitude);
+		endPart(longitude, edge, firstCrossingLatitude, parts,
+				partEdge == edge);
+
+		return parts.numParts() - start;
+	}
+
+	/**
+	 * End the current part at the antimeridian
+	 *
+	 * @param longitude
+	 *            longitude of the last part vertex
+	 * @param edge
+	 *            antimeridian edge longitude of the part side
+	 * @param latitude
+	 *            crossing latitude
+	 * @param parts
+	 *            coordinate parts
+	 * @param close
+	 *            true to close the part to its first coordinate
+	 */
+	private void endPart(double longitude, double edge, double latitude,
+			CoordinateParts parts, boolean close) {
+		if (longitude != edge) {
+			addVertex(edge, latitude, parts);
+		}
+		if (close) {
+			CoordinateBuffer coordinates = parts.getCoordinates();
+			int first = parts.getPartStart(parts.numParts() - 1);
+			parts.add(coordinates.getX(first), coordinates.getY(first));
+		}
+	}
+
+	/**
+	 * Start a new part at the antimeridian
+	 *
+	 * @param longitude
+	 *            longitude of the first part vertex
+	 * @param edge
+	 *            antimeridian edge longitude of the part side
+	 * @param latitude
+	 *            crossing latitude
+	 * @param parts
+	 *            coordinate parts
+	 */
+	private void startPart(double longitude, double edge, double latitude,
+			CoordinateParts parts) {
+		parts.startPart();
+		if (longitude != edge) {
+			addVertex(edge, latitude, parts);
+		}
+	}
+
+	/**
+	 * Transform a vertex into the parts
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @param parts
+	 *            coordinate parts
+	 */
+	private void addVertex(double longitude, double latitude,
+			CoordinateParts parts) {
+		transform(longitude, latitude);
+		parts.add(to.x, to.y);
+	}
+
+	/**
+	 * Check if the shortest segment between normalized longitudes crosses
+	 * the antimeridian
+	 *
+	 * @param longitude
+	 *            normalized segment start longitude
+	 * @param nextLongitude
+	 *            normalized segment end longitude
+	 * @return true if crosses
+	 */
+	private static boolean crossesAntimeridian(double longitude,
+			double nextLongitude) {
+		return Math.abs(nextLongitude
+				- longitude) > ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH;
+	}
+
+	/**
+	 * Get the antimeridian edge longitude on the side of a longitude
+	 *
+	 * @param longitude
+	 *            normalized longitude
+	 * @return 180 or -180
+	 */
+	private static double antimeridianEdge(double longitude) {
+		return longitude > 0.0 ? ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH
+				: -ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH;
+	}
+
+	/**
+	 * Get the interpolated latitude where the segment crosses the
+	 * antimeridian
+	 *
+	 * @param longitude
+	 *            normalized segment start longitude
+	 * @param latitude
+	 *            segment start latitude
+	 * @param nextLongitude
+	 *            normalized segment end longitude
+	 * @param nextLatitude
+	 *            segment end latitude
+	 * @return crossing latitude
+	 */
+	private static double crossingLatitude(double longitude, double latitude,
+			double nextLongitude, double nextLatitude) {
+		double edge = antimeridianEdge(longitude);
+		double unwrapped = nextLongitude + 2 * edge;
+		double crossingLatitude = latitude;
+		if (unwrapped != longitude) {
+			crossingLatitude += (nextLatitude - latitude) * (edge - longitude)
+					/ (unwrapped - longitude);
+		}
+		return crossingLatitude;
+	}
+
+	/**
+	 * Validate the source projection is in longitude latitude degrees
+	 */
+	private void validateGeographic() {
+		if (!transform.getFromProjection().isUnit(Units.DEGREES)) {
+			throw new ProjectionException(
+					"Antimeridian transforms require a source projection in degrees. projection: "
+							+ transform.getFromProjection());
+		}
+	}
+
+	/**
+	 * Transform a vertex into the reusable target coordinate
+	 *
+	 * @param x
+	 *            source x
+	 * @param y
+	 *            source y
+	 */
+	private void transform(double x, double y) {
+		from.x = x;
+		from.y = y;
+		transform.transform(from, to);
+	}
+
+	/**
+	 * Transform a vertex into the destination
+	 *
+	 * @param x
+	 *            source x
+	 * @param y
+	 *            source y
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstIndex
+	 *            destination array index
+	 */
+	private void transformVertex(double x, double y, double[] dst,
+			int dstIndex) {
+		transform(x, y);
+		dst[dstIndex] = to.x;
+		dst[dstIndex + 1] = to.y;
+	}
+
+	/**
+	 * Simplify the coordinates in place with Douglas-Peucker
+	 *
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @param offset
+	 *            array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 * @param toleranceSquared
+	 *            squared tolerance
+	 * @return number of simplified coordinates
+	 */
+	private int douglasPeucker(double[] coordinates, int offset, int count,
+			double toleranceSquared) {
+
+		if (count <= 2) {
+			return count;
+		}
+
+		if (keep.length < count) {
+			keep = new boolean[count];
+			stack = new int[count * 2];
+		}
+		for (int i = 0; i < count; i++) {
+			keep[i] = false;
+		}
+		keep[0] = true;
+		keep[count - 1] = true;
+
+		int stackSize = 0;
+		stack[stackSize++] = 0;
+		stack[stackSize++] = count - 1;
+		while (stackSize > 0) {
+			int end = stack[--stackSize];
+			int start = stack[--stackSize];
+			double startX = coordinates[offset + start * 2];
+			double startY = coordinates[offset + start * 2 + 1];
+			double endX = coordinates[offset + end * 2];
+			double endY = coordinates[offset + end * 2 + 1];
+			double maxDistance = toleranceSquared;
+			int index = -1;
+			for (int i = start + 1; i < end; i++) {
+				double distance = segmentDistanceSquared(
+						coordinates[offset + i * 2],
+						coordinates[offset + i * 2 + 1], startX, startY, endX,
+						endY);
+				if (distance > maxDistance) {
+					maxDistance = distance;
+					index = i;
+				}
+			}
+			if (index >= 0) {
+				keep[index] = true;
+				if (index - start > 1) {
+					stack[stackSize++] = start;
+					stack[stackSize++] = index;
+				}
+				if (end - index > 1) {
+					stack[stackSize++] = index;
+					stack[stackSize++] = end;
+				}
+			}
+		}
+
+		// Compact the kept coordinates
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (keep[i]) {
+				if (kept != i) {
+					coordinates[offset + kept * 2] = coordinates[offset + i * 2];
+					coordinates[offset + kept * 2 + 1] = coordinates[offset
+							+ i * 2 + 1];
+				}
+				kept++;
+			}
+		}
+
+		return kept;
+	}
+
+	/**
+	 * Get the squared distance from a point to a segment
+	 *
+	 * @param x
+	 *            point x
+	 * @param y
+	 *            point y
+	 * @param startX
+	 *            segment start x
+	 * @param startY
+	 *            segment start y
+	 * @param endX
+	 *            segment end x
+	 * @param endY
+	 *            segment end y
+	 * @return squared distance
+	 */
+	private static double segmentDistanceSquared(double x, double y,
+			double startX, double startY, double endX, double endY) {
+		double dx = endX - startX;
+		double dy = endY - startY;
+		double lengthSquared = dx * dx + dy * dy;
+		double px = startX;
+		double py = startY;
+		if (lengthSquared > 0.0) {
+			double t = ((x - startX) * dx + (y - startY) * dy)
+					/ lengthSquared;
+			if (t > 1.0) {
+				px = endX;
+				py = endY;
+			} else if (t > 0.0) {
+				px += dx * t;
+				py += dy * t;
+			}
+		}
+		dx = x - px;
+		dy = y - py;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Validate the coordinates length and get the coordinate count
+	 *
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @return number of coordinates
+	 */
+	private static int validateCount(double[] coordinates) {
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"Coordinates length is not a multiple of 2. length: "
+							+ coordinates.length);
+		}
+		return coordinates.length / 2;
+	}
+
+}
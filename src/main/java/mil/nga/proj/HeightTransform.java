@@ -0,0 +1,189 @@
+package mil.nga.proj;
+
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.datum.Datum;
+import org.locationtech.proj4j.datum.GeocentricConverter;
+
+/**
+ * Coordinate transform preserving ellipsoidal heights. Follows the same steps
+ * as the proj4j basic coordinate transform without clearing the z value
+ * before the datum transform, so heights are carried through the geocentric
+ * (3 and 7 parameter) datum shift.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+class HeightTransform implements CoordinateTransform {
+
+	/**
+	 * Source coordinate reference system
+	 */
+	private final CoordinateReferenceSystem srcCRS;
+
+	/**
+	 * Target coordinate reference system
+	 */
+	private final CoordinateReferenceSystem tgtCRS;
+
+	/**
+	 * Inverse project from the source flag
+	 */
+	private final boolean doInverseProjection;
+
+	/**
+	 * Forward project to the target flag
+	 */
+	private final boolean doForwardProjection;
+
+	/**
+	 * Datum transform flag
+	 */
+	private final boolean doDatumTransform;
+
+	/**
+	 * Datum transform via geocentric coordinates flag
+	 */
+	private final boolean transformViaGeocentric;
+
+	/**
+	 * Source geocentric converter
+	 */
+	private GeocentricConverter srcGeoConv;
+
+	/**
+	 * Target geocentric converter
+	 */
+	private GeocentricConverter tgtGeoConv;
+
+	/**
+	 * Constructor
+	 *
+	 * @param srcCRS
+	 *            source coordinate reference system
+	 * @param tgtCRS
+	 *            target coordinate reference system
+	 */
+	HeightTransform(CoordinateReferenceSystem srcCRS,
+			CoordinateReferenceSystem tgtCRS) {
+		this.srcCRS = srcCRS;
+		this.tgtCRS = tgtCRS;
+		doInverseProjection = srcCRS != CoordinateReferenceSystem.CS_GEO;
+		doForwardProjection = tgtCRS != CoordinateReferenceSystem.CS_GEO;
+		doDatumTransform = doInverseProjection && doForwardProjection
+				&& srcCRS.getDatum() != tgtCRS.getDatum();
+
+		boolean geocentric = false;
+		if (doDatumTransform) {
+			Datum srcDatum = srcCRS.getDatum();
+			Datum tgtDatum = tgtCRS.getDatum();
+			geocentric = !srcDatum.getEllipsoid()
+					.isEqual(tgtDatum.getEllipsoid())
+					|| srcDatum.hasTransformToWGS84()
+					|| tgtDatum.hasTransformToWGS84();
+			if (geocentric) {
+				srcGeoConv = new GeocentricConverter(srcDatum.getEllipsoid());
+				tgtGeoConv = new GeocentricConverter(tgtDatum.getEllipsoid());
+				boolean srcGridShift = srcDatum
+						.getTransformType() == Datum.TYPE_GRIDSHIFT;
+				boolean tgtGridShift = tgtDatum
+						.getTransformType() == Datum.TYPE_GRIDSHIFT;
+				if (srcGridShift || tgtGridShift) {
+					if (srcGridShift) {
+						srcGeoConv.overrideWithWGS84Params();
+					}
+					if (tgtGridShift) {
+						tgtGeoConv.overrideWithWGS84Params();
+					}
+					if (srcGeoConv.isEqual(tgtGeoConv)) {
+						geocentric = false;
+						srcGeoConv = null;
+						tgtGeoConv = null;
+					}
+				}
+			}
+		}
+		transformViaGeocentric = geocentric;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CoordinateReferenceSystem getSourceCRS() {
+		return srcCRS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CoordinateReferenceSystem getTargetCRS() {
+		return tgtCRS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * A source coordinate without a valid z value is treated as a height of
+	 * zero by the datum transform.
+	 */
+	@Override
+	public ProjCoordinate transform(ProjCoordinate src, ProjCoordinate tgt) {
+		tgt.setValue(src);
+		srcCRS.getProjection().getAxisOrder().toENU(tgt);
+		if (doInverseProjection) {
+			srcCRS.getProjection().inverseProjectRadians(tgt, tgt);
+		}
+		srcCRS.getProjection().getPrimeMeridian().toGreenwich(tgt);
+		if (doDatumTransform) {
+			datumTransform(tgt);
+		}
+		tgtCRS.getProjection().getPrimeMeridian().fromGreenwich(tgt);
+		if (doForwardProjection) {
+			tgtCRS.getProjection().projectRadians(tgt, tgt);
+		}
+		tgtCRS.getProjection().getAxisOrder().fromENU(tgt);
+		return tgt;
+	}
+
+	/**
+	 * Datum transform the geographic radians coordinate with height
+	 *
+	 * @param coordinate
+	 *            geographic radians coordinate
+	 */
+	private void datumTransform(ProjCoordinate coordinate) {
+
+		Datum srcDatum = srcCRS.getDatum();
+		Datum tgtDatum = tgtCRS.getDatum();
+
+		if (srcDatum.isEqual(tgtDatum)
+				|| srcDatum.getTransformType() == Datum.TYPE_UNKNOWN
+				|| tgtDatum.getTransformType() == Datum.TYPE_UNKNOWN) {
+			return;
+		}
+
+		if (srcDatum.getTransformType() == Datum.TYPE_GRIDSHIFT) {
+			srcDatum.shift(coordinate);
+		}
+
+		if (transformViaGeocentric) {
+			srcGeoConv.convertGeodeticToGeocentric(coordinate);
+			if (srcDatum.hasTransformToWGS84()) {
+				srcDatum.transformFromGeocentricToWgs84(coordinate);
+			}
+			if (tgtDatum.hasTransformToWGS84()) {
+				tgtDatum.transformToGeocentricFromWgs84(coordinate);
+			}
+			tgtGeoConv.convertGeocentricToGeodetic(coordinate);
+		}
+
+		if (tgtDatum.getTransformType() == Datum.TYPE_GRIDSHIFT) {
+			tgtDatum.inverseShift(coordinate);
+		}
+
+	}
+
+}
@@ -1,5 +1,6 @@
 package mil.nga.proj;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -27,6 +28,16 @@ public class Project {
 	 */
 	private static final String HELP_ARG = "-help";
 
+	/**
+	 * Serve Argument
+	 */
+	private static final String SERVE_ARG = "-serve";
+
+	/**
+	 * Client Argument
+	 */
+	private static final String CLIENT_ARG = "-client";
+
 	/**
 	 * From Projection Prompt
 	 */
@@ -60,6 +71,20 @@ public class Project {
 	 */
 	public static void main(String[] args) {
 
+		if (args.length > 0 && args[0].equalsIgnoreCase(SERVE_ARG)) {
+			if (args.length > 2 || !serve(args)) {
+				printUsage();
+			}
+			return;
+		}
+
+		if (args.length > 0 && args[0].equalsIgnoreCase(CLIENT_ARG)) {
+			if (args.length < 4 || !client(args)) {
+				printUsage();
+			}
+			return;
+		}
+
 		boolean valid = true;
 		Projection fromProjection = null;
 		StringBuilder builder = null;
@@ -117,6 +142,167 @@ public class Project {
 
 	}
 
+	/**
+	 * Serve transform requests on a localhost port until terminated
+	 * 
+	 * @param args
+	 *            serve arguments, optional port after the serve argument
+	 * @return false if invalid arguments
+	 */
+	private static boolean serve(String[] args) {
+
+		int port = ProjectServer.DEFAULT_PORT;
+		if (args.length > 1) {
+			Integer value = createPort(args[1]);
+			if (value == null) {
+				return false;
+			}
+			port = value;
+		}
+
+		try {
+			// Warm the projection properties before accepting requests
+			ProjectionRetriever.getOrCreateProjections(
+					ProjectionConstants.AUTHORITY_EPSG);
+			ProjectServer server = new ProjectServer(port);
+			System.out.println("Serving on localhost:" + server.getPort());
+			server.serve();
+		} catch (IOException e) {
+			System.out.println("Error: Failed to serve on port " + port
+					+ ": " + e.getMessage());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Send transform requests to a localhost server, from the coordinate
+	 * arguments or else each line of standard input
+	 * 
+	 * @param args
+	 *            client arguments, port, from projection, to projection, and
+	 *            optional coordinates after the client argument
+	 * @return false if invalid arguments
+	 */
+	private static boolean client(String[] args) {
+
+		Integer port = createPort(args[1]);
+		if (port == null) {
+			return false;
+		}
+		String from = args[2];
+		String to = args[3];
+
+		try (ProjectClient client = new ProjectClient(port)) {
+
+			if (args.length > 4) {
+				StringBuilder builder = new StringBuilder();
+				for (int i = 4; i < args.length; i++) {
+					if (i > 4) {
+						builder.append(" ");
+					}
+					builder.append(args[i]);
+				}
+				List<ProjCoordinate> coordinates = createCoordinates(
+						builder.toString());
+				if (coordinates.isEmpty()) {
+					return false;
+				}
+				project(client, from, to, coordinates);
+			} else {
+				Scanner scanner = new Scanner(System.in);
+				try {
+					while (scanner.hasNextLine()) {
+						List<ProjCoordinate> coordinates = createCoordinates(
+								scanner.nextLine());
+						if (!coordinates.isEmpty()) {
+							project(client, from, to, coordinates);
+						}
+					}
+				} finally {
+					scanner.close();
+				}
+			}
+
+		} catch (IOException | ProjectionException e) {
+			System.out.println("Error: " + e.getMessage());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Create a port
+	 * 
+	 * @param value
+	 *            port value
+	 * @return port or null if invalid
+	 */
+	private static Integer createPort(String value) {
+		Integer port = null;
+		try {
+			port = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+
+		}
+		if (port == null || port < 0 || port > 65535) {
+			System.out.println("Error: Invalid port '" + value + "'");
+			port = null;
+		}
+		return port;
+	}
+
+	/**
+	 * Project coordinates with a batched server request
+	 * 
+	 * @param client
+	 *            project client
+	 * @param from
+	 *            from projection value
+	 * @param to
+	 *            to projection value
+	 * @param coordinates
+	 *            coordinates
+	 * @throws IOException
+	 *             upon connection failure
+	 */
+	private static void project(ProjectClient client, String from, String to,
+			List<ProjCoordinate> coordinates) throws IOException {
+
+		int dimension = 2;
+		for (ProjCoordinate coordinate : coordinates) {
+			if (coordinate.hasValidZOrdinate()) {
+				dimension = 3;
+				break;
+			}
+		}
+
+		double[] values = new double[coordinates.size() * dimension];
+		for (int i = 0; i < coordinates.size(); i++) {
+			ProjCoordinate coordinate = coordinates.get(i);
+			values[i * dimension] = coordinate.x;
+			values[i * dimension + 1] = coordinate.y;
+			if (dimension == 3) {
+				values[i * dimension + 2] = coordinate.hasValidZOrdinate()
+						? coordinate.z
+						: 0.0;
+			}
+		}
+
+		double[] transformed = client.transform(from, to, values, dimension);
+
+		for (int i = 0; i < coordinates.size(); i++) {
+			ProjCoordinate coordinate = dimension == 3
+					? new ProjCoordinate(transformed[i * 3],
+							transformed[i * 3 + 1], transformed[i * 3 + 2])
+					: new ProjCoordinate(transformed[i * 2],
+							transformed[i * 2 + 1]);
+			System.out.println(coordinates.get(i).toShortString() + " -> "
+					+ coordinate.toShortString());
+		}
+
+	}
+
 	/**
 	 * Create a projection
 	 * 
@@ -129,22 +315,7 @@ public class Project {
 		Projection projection = null;
 
 		try {
-
-			if (value.contains("[") && value.contains("]")) {
-				projection = ProjectionFactory.getProjectionByDefinition(value);
-			} else if (value.contains("+")) {
-				projection = ProjectionFactory.getProjectionByParams(value);
-			} else {
-				String authority = ProjectionConstants.AUTHORITY_EPSG;
-				String code = value;
-				String[] parts = code.split(":");
-				if (parts.length == 2) {
-					authority = parts[0];
-					code = parts[1];
-				}
-				projection = ProjectionFactory.getProjection(authority, code);
-			}
-
+			projection = getProjection(value);
 		} catch (Exception e) {
 
 		}
@@ -156,6 +327,37 @@ public class Project {
 		return projection;
 	}
 
+	/**
+	 * Get a projection from an EPSG code, authority and code, proj4
+	 * parameters, or OGC WKT value
+	 * 
+	 * @param value
+	 *            projection value
+	 * @return projection
+	 * @since 1.1.5
+	 */
+	static Projection getProjection(String value) {
+
+		Projection projection = null;
+
+		if (value.contains("[") && value.contains("]")) {
+			projection = ProjectionFactory.getProjectionByDefinition(value);
+		} else if (value.contains("+")) {
+			projection = ProjectionFactory.getProjectionByParams(value);
+		} else {
+			String authority = ProjectionConstants.AUTHORITY_EPSG;
+			String code = value;
+			String[] parts = code.split(":");
+			if (parts.length == 2) {
+				authority = parts[0];
+				code = parts[1];
+			}
+			projection = ProjectionFactory.getProjection(authority, code);
+		}
+
+		return projection;
+	}
+
 	/**
 	 * Create coordinates
 	 * 
@@ -421,6 +623,9 @@ public class Project {
 		System.out.println("USAGE");
 		System.out.println();
 		System.out.println("\t[from_projection to_projection [coordinates]]");
+		System.out.println("\t" + SERVE_ARG + " [port]");
+		System.out.println("\t" + CLIENT_ARG
+				+ " port from_projection to_projection [coordinates]");
 		System.out.println();
 		System.out.println("DESCRIPTION");
 		System.out.println();
@@ -444,6 +649,15 @@ public class Project {
 		System.out
 				.println("\t\t\tExamples: [-110.0, 75.0], [95.0, -20.0, 0.0]");
 		System.out.println();
+		System.out.println("\t" + SERVE_ARG + " [port]");
+		System.out.println(
+				"\t\tServe transform requests on a localhost port, keeping projections and transforms cached between requests (default port "
+						+ ProjectServer.DEFAULT_PORT + ")");
+		System.out.println();
+		System.out.println("\t" + CLIENT_ARG + " port");
+		System.out.println(
+				"\t\tSend the transform to a localhost server, transforming the coordinates or else each line of standard input");
+		System.out.println();
 	}
 
 }
@@ -0,0 +1,185 @@
+package mil.nga.proj;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thin client sending transform requests to a localhost
+ * {@link ProjectServer}. Not thread safe, use a client per thread.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectClient implements Closeable {
+
+	/**
+	 * Connection socket
+	 */
+	private final Socket socket;
+
+	/**
+	 * Response reader
+	 */
+	private final BufferedReader reader;
+
+	/**
+	 * Request writer
+	 */
+	private final Writer writer;
+
+	/**
+	 * Reusable request line
+	 */
+	private final StringBuilder request = new StringBuilder();
+
+	/**
+	 * Constructor, connecting to the server on the localhost port
+	 *
+	 * @param port
+	 *            server localhost port
+	 * @throws IOException
+	 *             upon failure to connect
+	 */
+	public ProjectClient(int port) throws IOException {
+		socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		reader = new BufferedReader(new InputStreamReader(
+				socket.getInputStream(), StandardCharsets.UTF_8));
+		writer = new BufferedWriter(new OutputStreamWriter(
+				socket.getOutputStream(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Transform the interleaved coordinates on the server
+	 *
+	 * @param from
+	 *            from projection value (EPSG_CODE, AUTHORITY:CODE,
+	 *            PROJ_PARAMS, or OGC_WKT)
+	 * @param to
+	 *            to projection value (EPSG_CODE, AUTHORITY:CODE, PROJ_PARAMS,
+	 *            or OGC_WKT)
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @return transformed coordinates
+	 * @throws IOException
+	 *             upon connection failure
+	 */
+	public double[] transform(String from, String to, double[] coordinates,
+			int dimension) throws IOException {
+		send(from, to, coordinates, dimension);
+		writer.flush();
+		return receive(coordinates.length);
+	}
+
+	/**
+	 * Send a transform request without flushing or waiting for the response,
+	 * pipelining requests. Each sent request must be followed in order by a
+	 * call to {@link #receive(int)} after a {@link #flush()}.
+	 *
+	 * @param from
+	 *            from projection value
+	 * @param to
+	 *            to projection value
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @throws IOException
+	 *             upon connection failure
+	 */
+	public void send(String from, String to, double[] coordinates,
+			int dimension) throws IOException {
+		if (from.indexOf(ProjectServer.FIELD_SEPARATOR) >= 0
+				|| to.indexOf(ProjectServer.FIELD_SEPARATOR) >= 0) {
+			throw new IllegalArgumentException(
+					"Projection values can not contain tabs");
+		}
+		request.setLength(0);
+		request.append(from.replace('\n', ' ').replace('\r', ' '))
+				.append(ProjectServer.FIELD_SEPARATOR)
+				.append(to.replace('\n', ' ').replace('\r', ' '))
+				.append(ProjectServer.FIELD_SEPARATOR).append(dimension)
+				.append(ProjectServer.FIELD_SEPARATOR);
+		for (int i = 0; i < coordinates.length; i++) {
+			if (i > 0) {
+				request.append(ProjectServer.VALUE_SEPARATOR);
+			}
+			request.append(coordinates[i]);
+		}
+		request.append('\n');
+		writer.append(request);
+	}
+
+	/**
+	 * Flush the sent requests to the server
+	 *
+	 * @throws IOException
+	 *             upon connection failure
+	 */
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Receive the response of the next sent request
+	 *
+	 * @param length
+	 *            expected number of coordinate values
+	 * @return transformed coordinates
+	 * @throws IOException
+	 *             upon connection failure
+	 */
+	public double[] receive(int length) throws IOException {
+		String response = reader.readLine();
+		if (response == null) {
+			throw new IOException("Server closed the connection");
+		}
+		if (response.startsWith(ProjectServer.ERROR
+				+ ProjectServer.FIELD_SEPARATOR)) {
+			throw new ProjectionException(response
+					.substring(ProjectServer.ERROR.length() + 1));
+		}
+		double[] transformed = new double[length];
+		int count = 0;
+		int start = 0;
+		while (start <= response.length() && count < length) {
+			int end = response.indexOf(ProjectServer.VALUE_SEPARATOR, start);
+			if (end < 0) {
+				end = response.length();
+			}
+			if (end > start) {
+				transformed[count++] = Double
+						.parseDouble(response.substring(start, end));
+			}
+			start = end + 1;
+		}
+		if (count != length) {
+			throw new ProjectionException(
+					"Unexpected response value count. expected: " + length
+							+ ", received: " + count);
+		}
+		return transformed;
+	}
+
+	/**
+	 * Close the connection
+	 *
+	 * @throws IOException
+	 *             upon failure to close
+	 */
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+}
@@ -0,0 +1,562 @@
+package mil.nga.proj;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Long running projection transform server listening on a localhost port,
+ * keeping projections and transforms warm across requests so the per request
+ * cost is only the coordinate transform. Requests and responses are UTF-8
+ * lines, and a client may pipeline many request lines before reading the
+ * responses in order.
+ *
+ * Request line, tab separated:
+ *
+ * from_projection to_projection dimension values
+ *
+ * where the projections are any {@link Project} projection value (EPSG_CODE,
+ * AUTHORITY:CODE, PROJ_PARAMS, or OGC_WKT), the dimension is 2 or 3, and the
+ * values are the space separated interleaved coordinates [x y ...] or
+ * [x y z ...].
+ *
+ * Response line: the space separated transformed values, or
+ * {@value #ERROR} followed by a tab and the error message.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectServer implements Closeable {
+
+	/**
+	 * Default port
+	 */
+	public static final int DEFAULT_PORT = 7474;
+
+	/**
+	 * Default maximum number of cached request projection pairs
+	 */
+	public static final int DEFAULT_MAX_TRANSFORMS = 256;
+
+	/**
+	 * Request and response field separator
+	 */
+	public static final char FIELD_SEPARATOR = '\t';
+
+	/**
+	 * Coordinate value separator
+	 */
+	public static final char VALUE_SEPARATOR = ' ';
+
+	/**
+	 * Error response prefix
+	 */
+	public static final String ERROR = "ERROR";
+
+	/**
+	 * Logger
+	 */
+	private static final Logger log = Logger
+			.getLogger(ProjectServer.class.getName());
+
+	/**
+	 * Server socket
+	 */
+	private final ServerSocket serverSocket;
+
+	/**
+	 * Transform pools by request projections, least recently used first and
+	 * bounded to the maximum number of transforms
+	 */
+	private final Map<String, TransformPool> transforms;
+
+	/**
+	 * Maximum number of cached request projection pairs, for the server and
+	 * each connection
+	 */
+	private final int maxTransforms;
+
+	/**
+	 * Open connection sockets
+	 */
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructor, listening on the localhost port
+	 *
+	 * @param port
+	 *            localhost port, 0 for an ephemeral port
+	 * @throws IOException
+	 *             upon failure to listen on the port
+	 */
+	public ProjectServer(int port) throws IOException {
+		this(port, DEFAULT_MAX_TRANSFORMS);
+	}
+
+	/**
+	 * Constructor, listening on the localhost port
+	 *
+	 * @param port
+	 *            localhost port, 0 for an ephemeral port
+	 * @param maxTransforms
+	 *            maximum number of cached request projection pairs, least
+	 *            recently used pairs are evicted beyond it
+	 * @throws IOException
+	 *             upon failure to listen on the port
+	 */
+	public ProjectServer(int port, int maxTransforms) throws IOException {
+		if (maxTransforms < 1) {
+			throw new IllegalArgumentException(
+					"Max transforms must be at least 1. max transforms: "
+							+ maxTransforms);
+		}
+		this.maxTransforms = maxTransforms;
+		transforms = Collections.synchronizedMap(
+				new LinkedHashMap<String, TransformPool>(16, 0.75f, true) {
+
+					/**
+					 * Serial version id
+					 */
+					private static final long serialVersionUID = 1L;
+
+					/**
+					 * {@inheritDoc}
+					 */
+					@Override
+					protected boolean removeEldestEntry(
+							Map.Entry<String, TransformPool> eldest) {
+						return size() > maxTransforms;
+					}
+
+				});
+		serverSocket = new ServerSocket(port, 0,
+				InetAddress.getLoopbackAddress());
+	}
+
+	/**
+	 * Get the listening localhost port
+	 *
+	 * @return port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Get the number of cached request projection pairs
+	 *
+	 * @return transform count
+	 */
+	public int getTransformCount() {
+		return transforms.size();
+	}
+
+	/**
+	 * Start accepting connections on a daemon thread
+	 */
+	public void start() {
+		Thread thread = new Thread(this::serve,
+				"project-server-" + getPort());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Accept connections until closed, serving each connection on its own
+	 * daemon thread
+	 */
+	public void serve() {
+		try {
+			while (true) {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				connections.add(socket);
+				Thread thread = new Thread(() -> handle(socket),
+						"project-server-connection-" + socket.getPort());
+				thread.setDaemon(true);
+				thread.start();
+			}
+		} catch (IOException e) {
+			if (!serverSocket.isClosed()) {
+				log.log(Level.WARNING, "Failed to accept connection", e);
+			}
+		}
+	}
+
+	/**
+	 * Handle the requests of a connection until closed by the client
+	 *
+	 * @param socket
+	 *            connection socket
+	 */
+	private void handle(Socket socket) {
+		ConnectionTransforms connectionTransforms = new ConnectionTransforms(
+				maxTransforms);
+		double[] values = new double[64];
+		StringBuilder response = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer writer = new BufferedWriter(new OutputStreamWriter(
+						socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				response.setLength(0);
+				try {
+					values = respond(line, connectionTransforms, values,
+							response);
+				} catch (RuntimeException e) {
+					response.setLength(0);
+					response.append(ERROR).append(FIELD_SEPARATOR)
+							.append(errorMessage(e));
+				}
+				response.append('\n');
+				writer.append(response);
+				// Flush once the pipelined requests are answered
+				if (!reader.ready()) {
+					writer.flush();
+				}
+			}
+		} catch (SocketException e) {
+			// closed
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Failed to serve connection", e);
+		} finally {
+			connections.remove(socket);
+			connectionTransforms.release();
+		}
+	}
+
+	/**
+	 * Transform a request line into the response
+	 *
+	 * @param request
+	 *            request line
+	 * @param connectionTransforms
+	 *            connection transforms by request projections
+	 * @param values
+	 *            reusable coordinate values buffer
+	 * @param response
+	 *            response to append to
+	 * @return coordinate values buffer, grown if needed
+	 */
+	private double[] respond(String request,
+			ConnectionTransforms connectionTransforms, double[] values,
+			StringBuilder response) {
+
+		int toIndex = request.indexOf(FIELD_SEPARATOR);
+		int dimensionIndex = toIndex < 0 ? -1
+				: request.indexOf(FIELD_SEPARATOR, toIndex + 1);
+		int valuesIndex = dimensionIndex < 0 ? -1
+				: request.indexOf(FIELD_SEPARATOR, dimensionIndex + 1);
+		if (valuesIndex < 0) {
+			throw new IllegalArgumentException(
+					"Expected request: from_projection, to_projection, dimension, and values separated by tabs");
+		}
+
+		String key = request.substring(0, dimensionIndex);
+		ProjectionTransform transform = connectionTransforms.get(key);
+		if (transform == null) {
+			TransformPool pool = transforms.get(key);
+			if (pool == null) {
+				// Create outside of the map lock, keeping the first created
+				TransformPool created = new TransformPool(createTransform(
+						request.substring(0, toIndex),
+						request.substring(toIndex + 1, dimensionIndex)));
+				pool = transforms.putIfAbsent(key, created);
+				if (pool == null) {
+					pool = created;
+				}
+			}
+			transform = connectionTransforms.acquire(key, pool);
+		}
+
+		int dimension = Integer.parseInt(
+				request.substring(dimensionIndex + 1, valuesIndex).trim());
+		if (dimension != 2 && dimension != 3) {
+			throw new IllegalArgumentException(
+					"Dimension must be 2 or 3. dimension: " + dimension);
+		}
+
+		// Parse the values into the reusable buffer
+		int count = 0;
+		int length = request.length();
+		int start = valuesIndex + 1;
+		while (start < length) {
+			while (start < length
+					&& Character.isWhitespace(request.charAt(start))) {
+				start++;
+			}
+			int end = start;
+			while (end < length
+					&& !Character.isWhitespace(request.charAt(end))) {
+				end++;
+			}
+			if (end > start) {
+				if (count == values.length) {
+					values = Arrays.copyOf(values, count * 2);
+				}
+				values[count++] = Double
+						.parseDouble(request.substring(start, end));
+			}
+			start = end;
+		}
+		if (count % dimension != 0) {
+			throw new IllegalArgumentException(
+					"Value count is not a multiple of the dimension. count: "
+							+ count + ", dimension: " + dimension);
+		}
+
+		transform.transform(values, 0, values, 0, dimension,
+				count / dimension);
+
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				response.append(VALUE_SEPARATOR);
+			}
+			response.append(values[i]);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Create a transform between the projection values
+	 *
+	 * @param from
+	 *            from projection value
+	 * @param to
+	 *            to projection value
+	 * @return projection transform
+	 */
+	private static ProjectionTransform createTransform(String from,
+			String to) {
+		return Project.getProjection(from.trim())
+				.getTransformation(Project.getProjection(to.trim()));
+	}
+
+	/**
+	 * Get a single line error message
+	 *
+	 * @param e
+	 *            exception
+	 * @return error message
+	 */
+	private static String errorMessage(RuntimeException e) {
+		String message = e.getMessage();
+		if (message == null) {
+			message = e.getClass().getSimpleName();
+		}
+		return message.replace('\n', ' ').replace('\r', ' ');
+	}
+
+	/**
+	 * Pool of transforms between the same projections. Transforms are not
+	 * thread safe, so each connection acquires its own, copied from the
+	 * template sharing its height transform and kernel, and releases it for
+	 * reuse when closed.
+	 */
+	private static class TransformPool {
+
+		/**
+		 * Template transform
+		 */
+		private final ProjectionTransform template;
+
+		/**
+		 * Released transforms
+		 */
+		private final Queue<ProjectionTransform> idle = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param template
+		 *            template transform
+		 */
+		TransformPool(ProjectionTransform template) {
+			this.template = template;
+		}
+
+		/**
+		 * Acquire a released transform or copy the template
+		 *
+		 * @return transform owned by the caller until released
+		 */
+		ProjectionTransform acquire() {
+			ProjectionTransform transform = idle.poll();
+			if (transform == null) {
+				transform = new ProjectionTransform(template);
+			}
+			return transform;
+		}
+
+		/**
+		 * Release an acquired transform for reuse
+		 *
+		 * @param transform
+		 *            acquired transform
+		 */
+		void release(ProjectionTransform transform) {
+			idle.offer(transform);
+		}
+
+	}
+
+	/**
+	 * Transforms acquired by a connection, least recently used first and
+	 * bounded to the maximum number of transforms. Evicted transforms are
+	 * released to their pools.
+	 */
+	private static class ConnectionTransforms {
+
+		/**
+		 * Acquired pool transforms by request projections
+		 */
+		private final Map<String, PooledTransform> transforms;
+
+		/**
+		 * Constructor
+		 *
+		 * @param maxTransforms
+		 *            maximum number of acquired transforms
+		 */
+		ConnectionTransforms(int maxTransforms) {
+			transforms = new LinkedHashMap<String, PooledTransform>(16, 0.75f,
+					true) {
+
+				/**
+				 * Serial version id
+				 */
+				private static final long serialVersionUID = 1L;
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, PooledTransform> eldest) {
+					boolean remove = size() > maxTransforms;
+					if (remove) {
+						eldest.getValue().release();
+					}
+					return remove;
+				}
+
+			};
+		}
+
+		/**
+		 * Get the acquired transform
+		 *
+		 * @param key
+		 *            request projections
+		 * @return transform or null
+		 */
+		ProjectionTransform get(String key) {
+			PooledTransform pooled = transforms.get(key);
+			return pooled != null ? pooled.transform : null;
+		}
+
+		/**
+		 * Acquire a transform from the pool
+		 *
+		 * @param key
+		 *            request projections
+		 * @param pool
+		 *            transform pool
+		 * @return transform owned by the connection
+		 */
+		ProjectionTransform acquire(String key, TransformPool pool) {
+			PooledTransform pooled = new PooledTransform(pool,
+					pool.acquire());
+			transforms.put(key, pooled);
+			return pooled.transform;
+		}
+
+		/**
+		 * Release all acquired transforms to their pools
+		 */
+		void release() {
+			for (PooledTransform pooled : transforms.values()) {
+				pooled.release();
+			}
+			transforms.clear();
+		}
+
+	}
+
+	/**
+	 * Transform acquired from a pool
+	 */
+	private static class PooledTransform {
+
+		/**
+		 * Transform pool
+		 */
+		private final TransformPool pool;
+
+		/**
+		 * Acquired transform
+		 */
+		private final ProjectionTransform transform;
+
+		/**
+		 * Constructor
+		 *
+		 * @param pool
+		 *            transform pool
+		 * @param transform
+		 *            acquired transform
+		 */
+		PooledTransform(TransformPool pool, ProjectionTransform transform) {
+			this.pool = pool;
+			this.transform = transform;
+		}
+
+		/**
+		 * Release the transform to its pool
+		 */
+		void release() {
+			pool.release(transform);
+		}
+
+	}
+
+	/**
+	 * Stop listening and close the open connections
+	 *
+	 * @throws IOException
+	 *             upon failure to close the server socket
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		for (Socket socket : connections) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				log.log(Level.WARNING, "Failed to close connection", e);
+			}
+		}
+	}
+
+}
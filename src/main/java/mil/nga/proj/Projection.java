@@ -38,6 +38,16 @@ public class Projection {
 	 */
 	private final CRS definitionCRS;
 
+	/**
+	 * Canonical Coordinate Reference System fingerprint
+	 */
+	private String fingerprint;
+
+	/**
+	 * Valid longitude latitude domain
+	 */
+	private final ProjectionDomain domain;
+
 	/**
 	 * Constructor
 	 *
@@ -149,6 +159,7 @@ public class Projection {
 		this.crs = crs;
 		this.definition = definition;
 		this.definitionCRS = definitionCRS;
+		this.domain = ProjectionDomain.create(crs);
 	}
 
 	/**
@@ -196,6 +207,49 @@ public class Projection {
 		return definitionCRS;
 	}
 
+	/**
+	 * Get the valid longitude latitude domain, built from the projection
+	 * parameters
+	 * 
+	 * @return projection domain
+	 * @since 1.1.5
+	 */
+	public ProjectionDomain getDomain() {
+		return domain;
+	}
+
+	/**
+	 * Get the canonical Coordinate Reference System fingerprint, equal for
+	 * mathematically equivalent projections with complete fingerprints, see
+	 * {@link CRSFingerprint#isComplete(CoordinateReferenceSystem)}
+	 * 
+	 * @return fingerprint
+	 * @since 1.1.5
+	 */
+	public String getFingerprint() {
+		if (fingerprint == null) {
+			fingerprint = CRSFingerprint.create(crs);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Determine if this projection is mathematically equivalent to the
+	 * provided projection, regardless of authority and code. Projections
+	 * with different coordinate reference systems are only equivalent when
+	 * both fingerprints are complete.
+	 * 
+	 * @param projection
+	 *            projection
+	 * @return true if equivalent
+	 * @since 1.1.5
+	 */
+	public boolean isEquivalent(Projection projection) {
+		return crs == projection.crs || (CRSFingerprint.isComplete(crs)
+				&& CRSFingerprint.isComplete(projection.crs)
+				&& getFingerprint().equals(projection.getFingerprint()));
+	}
+
 	/**
 	 * Get the transformation from this Projection to the EPSG code. Each thread
 	 * of execution should have it's own transformation.
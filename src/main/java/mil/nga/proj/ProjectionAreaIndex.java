@@ -0,0 +1,634 @@
+package mil.nga.proj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import mil.nga.crs.CRS;
+import mil.nga.crs.bound.BoundCoordinateReferenceSystem;
+import mil.nga.crs.common.Extent;
+import mil.nga.crs.common.GeographicBoundingBox;
+import mil.nga.crs.common.Usage;
+import mil.nga.crs.metadata.CoordinateMetadata;
+
+/**
+ * Immutable spatial index of projection areas of use, from the WKT USAGE
+ * BBOX extents of projection definitions. Areas are indexed in a uniform
+ * longitude latitude degree grid, with areas spanning many cells kept in a
+ * list checked by every query. Areas crossing the antimeridian are indexed as
+ * two areas. Query results are ordered from the smallest to the largest area
+ * of use, most local projections first. Projections without definition
+ * extents, such as those created from proj4 parameters, are not indexed.
+ * <p>
+ * The bundled authority projections (the EPSG, OGC, and NONE properties) are
+ * proj4 parameter definitions without areas of use and never appear in the
+ * index. Only projections created from WKT definitions with USAGE BBOX
+ * extents, such as those from
+ * {@link ProjectionFactory#getProjectionByDefinition(String)}, are indexed.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionAreaIndex {
+
+	/**
+	 * Default grid cell size in degrees
+	 */
+	public static final double DEFAULT_CELL_SIZE = 5.0;
+
+	/**
+	 * Maximum number of cells an area is indexed in before being checked by
+	 * every query
+	 */
+	private static final int MAX_AREA_CELLS = 64;
+
+	/**
+	 * Empty cell
+	 */
+	private static final int[] EMPTY = new int[0];
+
+	/**
+	 * Indexed projections, ordered by area
+	 */
+	private final Projection[] projections;
+
+	/**
+	 * Projection areas as [min longitude, min latitude, max longitude, max
+	 * latitude, ...] per projection
+	 */
+	private final double[][] areas;
+
+	/**
+	 * Grid cell size in degrees
+	 */
+	private final double cellSize;
+
+	/**
+	 * Grid columns
+	 */
+	private final int columns;
+
+	/**
+	 * Grid rows
+	 */
+	private final int rows;
+
+	/**
+	 * Projection indices in each cell, in ascending order
+	 */
+	private final int[][] cells;
+
+	/**
+	 * Projection indices of areas spanning many cells, in ascending order
+	 */
+	private final int[] large;
+
+	/**
+	 * Create an index of the cached {@link ProjectionFactory} projections.
+	 * Cached projections from the bundled proj4 properties have no areas of
+	 * use and are not indexed.
+	 *
+	 * @return projection area index
+	 */
+	public static ProjectionAreaIndex fromFactory() {
+		List<Projection> projections = new ArrayList<>();
+		for (String authority : ProjectionFactory.getAuthorities()) {
+			AuthorityProjections authorityProjections = ProjectionFactory
+					.getProjections(authority);
+			if (authorityProjections != null) {
+				projections.addAll(authorityProjections.getProjections());
+			}
+		}
+		return new ProjectionAreaIndex(projections);
+	}
+
+	/**
+	 * Get the geographic bounding boxes of the projection definition usages
+	 *
+	 * @param projection
+	 *            projection
+	 * @return geographic bounding boxes
+	 */
+	public static List<GeographicBoundingBox> getBoundingBoxes(
+			Projection projection) {
+		List<GeographicBoundingBox> boxes = new ArrayList<>();
+		CRS crs = projection.getDefinitionCRS();
+		if (crs != null) {
+			addBoundingBoxes(crs, boxes);
+			if (boxes.isEmpty()) {
+				if (crs instanceof BoundCoordinateReferenceSystem) {
+					addBoundingBoxes(((BoundCoordinateReferenceSystem) crs)
+							.getSource(), boxes);
+				} else if (crs instanceof CoordinateMetadata) {
+					addBoundingBoxes(((CoordinateMetadata) crs)
+							.getCoordinateReferenceSystem(), boxes);
+				}
+			}
+		}
+		return boxes;
+	}
+
+	/**
+	 * Add the geographic bounding boxes of the coordinate reference system
+	 * usages
+	 *
+	 * @param crs
+	 *            coordinate reference system
+	 * @param boxes
+	 *            geographic bounding boxes
+	 */
+	private static void addBoundingBoxes(CRS crs,
+			List<GeographicBoundingBox> boxes) {
+		if (crs != null && crs.hasUsages()) {
+			for (Usage usage : crs.getUsages()) {
+				Extent extent = usage.getExtent();
+				if (extent != null && extent.hasGeographicBoundingBox()) {
+					boxes.add(extent.getGeographicBoundingBox());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param projections
+	 *            projections
+	 */
+	public ProjectionAreaIndex(Collection<Projection> projections) {
+		this(projections, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param projections
+	 *            projections
+	 * @param cellSize
+	 *            grid cell size in degrees
+	 */
+	public ProjectionAreaIndex(Collection<Projection> projections,
+			double cellSize) {
+
+		if (!(cellSize > 0.0) || cellSize > 180.0) {
+			throw new IllegalArgumentException(
+					"Cell size must be greater than 0 and at most 180 degrees, "
+							+ "cell size: " + cellSize);
+		}
+
+		this.cellSize = cellSize;
+		this.columns = (int) Math.ceil(360.0 / cellSize);
+		this.rows = (int) Math.ceil(180.0 / cellSize);
+
+		List<Projection> indexed = new ArrayList<>();
+		List<double[]> indexedAreas = new ArrayList<>();
+		List<Double> sizes = new ArrayList<>();
+		for (Projection projection : projections) {
+			double[] projectionAreas = areas(getBoundingBoxes(projection));
+			if (projectionAreas.length > 0) {
+				indexed.add(projection);
+				indexedAreas.add(projectionAreas);
+				sizes.add(size(projectionAreas));
+			}
+		}
+
+		// Order by area so query results in index order are most local first
+		Integer[] order = new Integer[indexed.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble(sizes::get));
+
+		this.projections = new Projection[order.length];
+		this.areas = new double[order.length][];
+		for (int i = 0; i < order.length; i++) {
+			this.projections[i] = indexed.get(order[i]);
+			this.areas[i] = indexedAreas.get(order[i]);
+		}
+
+		int[][] cellIndices = new int[columns * rows][];
+		int[] cellCounts = new int[cellIndices.length];
+		int[] largeIndices = new int[order.length];
+		int largeCount = 0;
+		for (int index = 0; index < this.areas.length; index++) {
+			double[] projectionAreas = this.areas[index];
+			int cellCount = 0;
+			for (int area = 0; area < projectionAreas.length; area += 4) {
+				cellCount += (column(projectionAreas[area + 2])
+						- column(projectionAreas[area]) + 1)
+						* (row(projectionAreas[area + 3])
+								- row(projectionAreas[area + 1]) + 1);
+			}
+			if (cellCount > MAX_AREA_CELLS) {
+				largeIndices[largeCount++] = index;
+			} else {
+				for (int area = 0; area < projectionAreas.length; area += 4) {
+					int minColumn = column(projectionAreas[area]);
+					int minRow = row(projectionAreas[area + 1]);
+					int maxColumn = column(projectionAreas[area + 2]);
+					int maxRow = row(projectionAreas[area + 3]);
+					for (int row = minRow; row <= maxRow; row++) {
+						for (int column = minColumn; column <= maxColumn;
+								column++) {
+							addToCell(cellIndices, cellCounts,
+									row * columns + column, index);
+						}
+					}
+				}
+			}
+		}
+
+		this.cells = new int[cellIndices.length][];
+		for (int cell = 0; cell < cellIndices.length; cell++) {
+			this.cells[cell] = cellCounts[cell] == 0 ? EMPTY
+					: Arrays.copyOf(cellIndices[cell], cellCounts[cell]);
+		}
+		this.large = Arrays.copyOf(largeIndices, largeCount);
+	}
+
+	/**
+	 * Add the projection index to the cell, once per projection
+	 *
+	 * @param cellIndices
+	 *            projection indices in each cell
+	 * @param cellCounts
+	 *            projection index count in each cell
+	 * @param cell
+	 *            cell
+	 * @param index
+	 *            projection index
+	 */
+	private static void addToCell(int[][] cellIndices, int[] cellCounts,
+			int cell, int index) {
+		int count = cellCounts[cell];
+		int[] indices = cellIndices[cell];
+		if (count == 0 || indices[count - 1] != index) {
+			if (indices == null) {
+				indices = new int[4];
+				cellIndices[cell] = indices;
+			} else if (count == indices.length) {
+				indices = Arrays.copyOf(indices, count * 2);
+				cellIndices[cell] = indices;
+			}
+			indices[count] = index;
+			cellCounts[cell] = count + 1;
+		}
+	}
+
+	/**
+	 * Get the number of indexed projections
+	 *
+	 * @return indexed projections count
+	 */
+	public int size() {
+		return projections.length;
+	}
+
+	/**
+	 * Get the grid cell size in degrees
+	 *
+	 * @return cell size
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Get the indexed projections, ordered from the smallest to the largest
+	 * area
+	 *
+	 * @return projections
+	 */
+	public List<Projection> getProjections() {
+		return Collections.unmodifiableList(Arrays.asList(projections));
+	}
+
+	/**
+	 * Get the projections with an area of use covering the point
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return covering projections, most local first
+	 */
+	public List<Projection> covering(double longitude, double latitude) {
+		return covering(longitude, latitude, longitude, latitude);
+	}
+
+	/**
+	 * Get the projections with an area of use covering the envelope
+	 *
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return covering projections, most local first
+	 */
+	public List<Projection> covering(double minLongitude, double minLatitude,
+			double maxLongitude, double maxLatitude) {
+		List<Projection> covering = new ArrayList<>();
+		if (isValid(minLongitude, minLatitude, maxLongitude, maxLatitude)) {
+			// A covering area contains the lower left envelope corner
+			int[] cell = cells[row(minLatitude) * columns
+					+ column(minLongitude)];
+			int cellIndex = 0;
+			int largeIndex = 0;
+			while (cellIndex < cell.length || largeIndex < large.length) {
+				int index;
+				if (largeIndex == large.length || (cellIndex < cell.length
+						&& cell[cellIndex] < large[largeIndex])) {
+					index = cell[cellIndex++];
+				} else {
+					index = large[largeIndex++];
+				}
+				if (covers(areas[index], minLongitude, minLatitude,
+						maxLongitude, maxLatitude)) {
+					covering.add(projections[index]);
+				}
+			}
+		}
+		return covering;
+	}
+
+	/**
+	 * Get the projections with an area of use covering each point
+	 *
+	 * @param coordinates
+	 *            coordinates as [longitude, latitude, ...] in degrees
+	 * @return covering projections of each point, most local first
+	 */
+	public List<List<Projection>> coveringEach(double[] coordinates) {
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"Coordinates length is not a multiple of 2. length: "
+							+ coordinates.length);
+		}
+		List<List<Projection>> covering = new ArrayList<>(
+				coordinates.length / 2);
+		for (int i = 0; i < coordinates.length; i += 2) {
+			covering.add(covering(coordinates[i], coordinates[i + 1]));
+		}
+		return covering;
+	}
+
+	/**
+	 * Get the projections with an area of use covering all points
+	 *
+	 * @param coordinates
+	 *            coordinates as [longitude, latitude, ...] in degrees
+	 * @return covering projections, most local first
+	 */
+	public List<Projection> coveringAll(double[] coordinates) {
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"Coordinates length is not a multiple of 2. length: "
+							+ coordinates.length);
+		}
+		List<Projection> covering;
+		if (coordinates.length == 0) {
+			covering = new ArrayList<>();
+		} else {
+			double minLongitude = Double.POSITIVE_INFINITY;
+			double minLatitude = Double.POSITIVE_INFINITY;
+			double maxLongitude = Double.NEGATIVE_INFINITY;
+			double maxLatitude = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < coordinates.length; i += 2) {
+				minLongitude = Math.min(minLongitude, coordinates[i]);
+				maxLongitude = Math.max(maxLongitude, coordinates[i]);
+				minLatitude = Math.min(minLatitude, coordinates[i + 1]);
+				maxLatitude = Math.max(maxLatitude, coordinates[i + 1]);
+			}
+			// Areas are boxes, covering all points is covering their bounds
+			covering = covering(minLongitude, minLatitude, maxLongitude,
+					maxLatitude);
+		}
+		return covering;
+	}
+
+	/**
+	 * Get the projections with an area of use intersecting the envelope
+	 *
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return intersecting projections, most local first
+	 */
+	public List<Projection> intersecting(double minLongitude,
+			double minLatitude, double maxLongitude, double maxLatitude) {
+		List<Projection> intersecting = new ArrayList<>();
+		if (isValid(minLongitude, minLatitude, maxLongitude, maxLatitude)) {
+			BitSet matches = new BitSet(projections.length);
+			for (int index : large) {
+				if (intersects(areas[index], minLongitude, minLatitude,
+						maxLongitude, maxLatitude)) {
+					matches.set(index);
+				}
+			}
+			for (int row = row(minLatitude); row <= row(maxLatitude); row++) {
+				for (int column = column(minLongitude); column <= column(
+						maxLongitude); column++) {
+					for (int index : cells[row * columns + column]) {
+						if (!matches.get(index) && intersects(areas[index],
+								minLongitude, minLatitude, maxLongitude,
+								maxLatitude)) {
+							matches.set(index);
+						}
+					}
+				}
+			}
+			for (int index = matches.nextSetBit(0); index >= 0; index = matches
+					.nextSetBit(index + 1)) {
+				intersecting.add(projections[index]);
+			}
+		}
+		return intersecting;
+	}
+
+	/**
+	 * Get the grid column of the longitude
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @return column
+	 */
+	private int column(double longitude) {
+		return Math.min(columns - 1,
+				Math.max(0, (int) ((longitude + 180.0) / cellSize)));
+	}
+
+	/**
+	 * Get the grid row of the latitude
+	 *
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return row
+	 */
+	private int row(double latitude) {
+		return Math.min(rows - 1,
+				Math.max(0, (int) ((latitude + 90.0) / cellSize)));
+	}
+
+	/**
+	 * Check if the envelope is a valid longitude latitude envelope
+	 *
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return true if valid
+	 */
+	private static boolean isValid(double minLongitude, double minLatitude,
+			double maxLongitude, double maxLatitude) {
+		return minLongitude >= -180.0 && maxLongitude <= 180.0
+				&& minLongitude <= maxLongitude && minLatitude >= -90.0
+				&& maxLatitude <= 90.0 && minLatitude <= maxLatitude;
+	}
+
+	/**
+	 * Check if one of the areas covers the envelope
+	 *
+	 * @param areas
+	 *            projection areas
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return true if covered
+	 */
+	private static boolean covers(double[] areas, double minLongitude,
+			double minLatitude, double maxLongitude, double maxLatitude) {
+		boolean covers = false;
+		for (int area = 0; !covers && area < areas.length; area += 4) {
+			covers = areas[area] <= minLongitude
+					&& areas[area + 1] <= minLatitude
+					&& areas[area + 2] >= maxLongitude
+					&& areas[area + 3] >= maxLatitude;
+		}
+		return covers;
+	}
+
+	/**
+	 * Check if one of the areas intersects the envelope
+	 *
+	 * @param areas
+	 *            projection areas
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return true if intersecting
+	 */
+	private static boolean intersects(double[] areas, double minLongitude,
+			double minLatitude, double maxLongitude, double maxLatitude) {
+		boolean intersects = false;
+		for (int area = 0; !intersects && area < areas.length; area += 4) {
+			intersects = areas[area] <= maxLongitude
+					&& areas[area + 1] <= maxLatitude
+					&& areas[area + 2] >= minLongitude
+					&& areas[area + 3] >= minLatitude;
+		}
+		return intersects;
+	}
+
+	/**
+	 * Convert geographic bounding boxes to areas, dividing boxes crossing the
+	 * antimeridian
+	 *
+	 * @param boxes
+	 *            geographic bounding boxes
+	 * @return areas as [min longitude, min latitude, max longitude, max
+	 *         latitude, ...]
+	 */
+	private static double[] areas(List<GeographicBoundingBox> boxes) {
+		double[] areas = new double[boxes.size() * 8];
+		int length = 0;
+		for (GeographicBoundingBox box : boxes) {
+			double minLongitude = box.getLowerLeftLongitude();
+			double minLatitude = Math.max(-90.0, box.getLowerLeftLatitude());
+			double maxLongitude = box.getUpperRightLongitude();
+			double maxLatitude = Math.min(90.0, box.getUpperRightLatitude());
+			if (minLatitude > maxLatitude) {
+				continue;
+			}
+			if (minLongitude > maxLongitude) {
+				length = area(areas, length, minLongitude, minLatitude, 180.0,
+						maxLatitude);
+				length = area(areas, length, -180.0, minLatitude, maxLongitude,
+						maxLatitude);
+			} else {
+				length = area(areas, length, minLongitude, minLatitude,
+						maxLongitude, maxLatitude);
+			}
+		}
+		return Arrays.copyOf(areas, length);
+	}
+
+	/**
+	 * Add an area, clamping longitudes
+	 *
+	 * @param areas
+	 *            areas
+	 * @param length
+	 *            current areas length
+	 * @param minLongitude
+	 *            min longitude in degrees
+	 * @param minLatitude
+	 *            min latitude in degrees
+	 * @param maxLongitude
+	 *            max longitude in degrees
+	 * @param maxLatitude
+	 *            max latitude in degrees
+	 * @return areas length
+	 */
+	private static int area(double[] areas, int length, double minLongitude,
+			double minLatitude, double maxLongitude, double maxLatitude) {
+		areas[length++] = Math.max(-180.0, minLongitude);
+		areas[length++] = minLatitude;
+		areas[length++] = Math.min(180.0, maxLongitude);
+		areas[length++] = maxLatitude;
+		return length;
+	}
+
+	/**
+	 * Get the total size in square degrees of the areas
+	 *
+	 * @param areas
+	 *            areas
+	 * @return size
+	 */
+	private static double size(double[] areas) {
+		double size = 0.0;
+		for (int area = 0; area < areas.length; area += 4) {
+			size += (areas[area + 2] - areas[area])
+					* (areas[area + 3] - areas[area + 1]);
+		}
+		return size;
+	}
+
+}
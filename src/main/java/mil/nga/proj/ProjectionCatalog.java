@@ -0,0 +1,232 @@
+package mil.nga.proj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog of projection metadata for the codes of each authority, indexed
+ * once from the {@link ProjectionRetriever} property sources without creating
+ * coordinate reference systems. Authority indexes are invalidated when the
+ * retriever projections of the authority are set or cleared.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionCatalog {
+
+	/**
+	 * Code order, numeric codes in numeric order before other codes in
+	 * lexicographic order
+	 */
+	private static final Comparator<String> CODE_ORDER = (code1, code2) -> {
+		Long number1 = number(code1);
+		Long number2 = number(code2);
+		int compare;
+		if (number1 != null && number2 != null) {
+			compare = number1.compareTo(number2);
+		} else if (number1 != null) {
+			compare = -1;
+		} else if (number2 != null) {
+			compare = 1;
+		} else {
+			compare = code1.compareTo(code2);
+		}
+		return compare;
+	};
+
+	/**
+	 * Metadata indexes for each authority
+	 */
+	private static final Map<String, Index> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the projection metadata for the EPSG code
+	 *
+	 * @param epsg
+	 *            EPSG coordinate code
+	 * @return projection metadata or null
+	 */
+	public static ProjectionMetadata getMetadata(long epsg) {
+		return getMetadata(ProjectionConstants.AUTHORITY_EPSG,
+				String.valueOf(epsg));
+	}
+
+	/**
+	 * Get the projection metadata for the authority and code
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @return projection metadata or null
+	 */
+	public static ProjectionMetadata getMetadata(String authority,
+			long code) {
+		return getMetadata(authority, String.valueOf(code));
+	}
+
+	/**
+	 * Get the projection metadata for the authority and code
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @return projection metadata or null
+	 */
+	public static ProjectionMetadata getMetadata(String authority,
+			String code) {
+		return getIndex(authority).codes.get(code);
+	}
+
+	/**
+	 * Get the projection metadata of all codes for the authority, numeric
+	 * codes in numeric order before other codes
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @return unmodifiable projection metadata list
+	 */
+	public static List<ProjectionMetadata> getMetadata(String authority) {
+		return getIndex(authority).metadata;
+	}
+
+	/**
+	 * Check if the authority has the code
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @return true if has the code
+	 */
+	public static boolean hasCode(String authority, String code) {
+		return getMetadata(authority, code) != null;
+	}
+
+	/**
+	 * Get the number of codes for the authority
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @return code count
+	 */
+	public static int count(String authority) {
+		return getMetadata(authority).size();
+	}
+
+	/**
+	 * Clear the indexes of all authorities
+	 */
+	public static void clear() {
+		indexes.clear();
+	}
+
+	/**
+	 * Clear the index of the authority
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 */
+	public static void clear(String authority) {
+		indexes.remove(authority.toLowerCase());
+	}
+
+	/**
+	 * Get or create the authority index
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @return authority index
+	 */
+	private static Index getIndex(String authority) {
+		String authorityKey = authority.toLowerCase();
+		Index index = indexes.get(authorityKey);
+		if (index == null) {
+			// Load outside of the index mapping so property file I/O does not
+			// hold the mapping lock
+			Properties loaded = ProjectionRetriever
+					.getOrCreateProjections(authority);
+			// Index within the mapping so a concurrent invalidation removes
+			// the index only after it is created from the previous properties
+			index = indexes.computeIfAbsent(authorityKey, (key) -> {
+				Properties properties = ProjectionRetriever
+						.getProjections(key);
+				return new Index(authority,
+						properties != null ? properties : loaded);
+			});
+		}
+		return index;
+	}
+
+	/**
+	 * Parse the code as a number
+	 *
+	 * @param code
+	 *            coordinate code
+	 * @return number or null
+	 */
+	private static Long number(String code) {
+		Long number = null;
+		try {
+			number = Long.parseLong(code);
+		} catch (NumberFormatException e) {
+			// not numeric
+		}
+		return number;
+	}
+
+	/**
+	 * Metadata index of an authority
+	 */
+	private static class Index {
+
+		/**
+		 * Metadata by code
+		 */
+		private final Map<String, ProjectionMetadata> codes;
+
+		/**
+		 * Metadata in code order
+		 */
+		private final List<ProjectionMetadata> metadata;
+
+		/**
+		 * Constructor
+		 *
+		 * @param authority
+		 *            coordinate authority
+		 * @param properties
+		 *            projection properties
+		 */
+		Index(String authority, Properties properties) {
+			List<String> sortedCodes = new ArrayList<>(
+					properties.stringPropertyNames());
+			sortedCodes.sort(CODE_ORDER);
+			Map<String, String> pool = new HashMap<>();
+			Map<String, ProjectionMetadata> codes = new HashMap<>(
+					sortedCodes.size() * 4 / 3 + 1);
+			List<ProjectionMetadata> metadata = new ArrayList<>(
+					sortedCodes.size());
+			for (String code : sortedCodes) {
+				String parameters = properties.getProperty(code);
+				if (parameters != null) {
+					ProjectionMetadata codeMetadata = ProjectionMetadata
+							.parse(authority, code, parameters, pool);
+					codes.put(code, codeMetadata);
+					metadata.add(codeMetadata);
+				}
+			}
+			this.codes = codes;
+			this.metadata = Collections.unmodifiableList(metadata);
+		}
+
+	}
+
+}
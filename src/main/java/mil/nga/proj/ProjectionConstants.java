@@ -77,6 +77,29 @@ public class ProjectionConstants {
 	 */
 	public static double WGS84_HALF_WORLD_LON_WIDTH = 180.0;
 
+	/**
+	 * Normalize a longitude into [-180, 180] by the fewest whole world
+	 * widths, keeping longitudes already in range. Longitudes beyond an
+	 * antimeridian stay on its side, so 540 normalizes to 180 and -540 to
+	 * -180.
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @return normalized longitude
+	 * @since 1.1.5
+	 */
+	public static double normalizeLongitude(double longitude) {
+		double halfWidth = WGS84_HALF_WORLD_LON_WIDTH;
+		if (longitude > halfWidth) {
+			longitude -= 2 * halfWidth
+					* Math.ceil((longitude - halfWidth) / (2 * halfWidth));
+		} else if (longitude < -halfWidth) {
+			longitude += 2 * halfWidth
+					* Math.ceil((-halfWidth - longitude) / (2 * halfWidth));
+		}
+		return longitude;
+	}
+
 	/**
 	 * Half the world latitude height for WGS84
 	 */
@@ -0,0 +1,483 @@
+package mil.nga.proj;
+
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.proj.AzimuthalProjection;
+import org.locationtech.proj4j.proj.LongLatProjection;
+import org.locationtech.proj4j.proj.MercatorProjection;
+
+/**
+ * Valid longitude latitude domain of a projection, built from the proj4
+ * projection parameters when the projection is resolved. The domain is a
+ * longitude and latitude range, optionally limited to a maximum great circle
+ * distance from the projection center for azimuthal projections. Bulk
+ * transforms from longitude latitude coordinates validate, clamp, or wrap
+ * coordinates against the target domain with a comparison instead of a
+ * failed transform.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionDomain {
+
+	/**
+	 * Full longitude latitude world domain
+	 */
+	public static final ProjectionDomain WORLD = new ProjectionDomain(
+			-ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH,
+			ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH,
+			-ProjectionConstants.WGS84_HALF_WORLD_LAT_HEIGHT,
+			ProjectionConstants.WGS84_HALF_WORLD_LAT_HEIGHT, 0.0, 0.0,
+			Double.NaN);
+
+	/**
+	 * Minimum longitude in degrees, may be less than -180 when the range
+	 * spans the antimeridian
+	 */
+	private final double minLongitude;
+
+	/**
+	 * Maximum longitude in degrees, may be greater than 180 when the range
+	 * spans the antimeridian
+	 */
+	private final double maxLongitude;
+
+	/**
+	 * Minimum latitude in degrees
+	 */
+	private final double minLatitude;
+
+	/**
+	 * Maximum latitude in degrees
+	 */
+	private final double maxLatitude;
+
+	/**
+	 * Center longitude in degrees
+	 */
+	private final double centerLongitude;
+
+	/**
+	 * Center latitude in degrees
+	 */
+	private final double centerLatitude;
+
+	/**
+	 * Maximum great circle distance in degrees from the center, NaN if not
+	 * limited
+	 */
+	private final double maxDistance;
+
+	/**
+	 * Create the domain of the coordinate reference system from its proj4
+	 * projection parameters: the Web Mercator latitude limits for Mercator
+	 * projections, the map radius around the center of azimuthal
+	 * projections, and otherwise the projection latitude range and longitude
+	 * range, relative to the central meridian when narrower than the world
+	 *
+	 * @param crs
+	 *            coordinate reference system
+	 * @return projection domain
+	 */
+	public static ProjectionDomain create(CoordinateReferenceSystem crs) {
+
+		org.locationtech.proj4j.proj.Projection projection = crs
+				.getProjection();
+
+		ProjectionDomain domain = WORLD;
+
+		if (projection == null || projection instanceof LongLatProjection) {
+			// world domain
+		} else if (projection instanceof MercatorProjection) {
+			domain = new ProjectionDomain(WORLD.minLongitude,
+					WORLD.maxLongitude,
+					ProjectionConstants.WEB_MERCATOR_MIN_LAT_RANGE,
+					ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE, 0.0, 0.0,
+					Double.NaN);
+		} else if (projection instanceof AzimuthalProjection) {
+			domain = new ProjectionDomain(WORLD.minLongitude,
+					WORLD.maxLongitude, WORLD.minLatitude, WORLD.maxLatitude,
+					projection.getProjectionLongitudeDegrees(),
+					projection.getProjectionLatitudeDegrees(),
+					((AzimuthalProjection) projection).getMapRadius());
+		} else {
+			double minLongitude = projection.getMinLongitudeDegrees();
+			double maxLongitude = projection.getMaxLongitudeDegrees();
+			if (maxLongitude - minLongitude < 2
+					* ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH) {
+				double central = projection.getProjectionLongitudeDegrees();
+				minLongitude += central;
+				maxLongitude += central;
+			} else {
+				minLongitude = WORLD.minLongitude;
+				maxLongitude = WORLD.maxLongitude;
+			}
+			domain = new ProjectionDomain(minLongitude, maxLongitude,
+					Math.max(WORLD.minLatitude,
+							projection.getMinLatitudeDegrees()),
+					Math.min(WORLD.maxLatitude,
+							projection.getMaxLatitudeDegrees()),
+					0.0, 0.0, Double.NaN);
+		}
+
+		return domain;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param minLongitude
+	 *            minimum longitude in degrees, may be less than -180
+	 * @param maxLongitude
+	 *            maximum longitude in degrees, may be greater than 180
+	 * @param minLatitude
+	 *            minimum latitude in degrees
+	 * @param maxLatitude
+	 *            maximum latitude in degrees
+	 * @param centerLongitude
+	 *            center longitude in degrees
+	 * @param centerLatitude
+	 *            center latitude in degrees
+	 * @param maxDistance
+	 *            maximum great circle distance in degrees from the center,
+	 *            NaN if not limited
+	 */
+	public ProjectionDomain(double minLongitude, double maxLongitude,
+			double minLatitude, double maxLatitude, double centerLongitude,
+			double centerLatitude, double maxDistance) {
+		this.minLongitude = minLongitude;
+		this.maxLongitude = maxLongitude;
+		this.minLatitude = minLatitude;
+		this.maxLatitude = maxLatitude;
+		this.centerLongitude = centerLongitude;
+		this.centerLatitude = centerLatitude;
+		this.maxDistance = maxDistance;
+	}
+
+	/**
+	 * Get the minimum longitude in degrees, may be less than -180 when the
+	 * range spans the antimeridian
+	 *
+	 * @return minimum longitude
+	 */
+	public double getMinLongitude() {
+		return minLongitude;
+	}
+
+	/**
+	 * Get the maximum longitude in degrees, may be greater than 180 when the
+	 * range spans the antimeridian
+	 *
+	 * @return maximum longitude
+	 */
+	public double getMaxLongitude() {
+		return maxLongitude;
+	}
+
+	/**
+	 * Get the minimum latitude in degrees
+	 *
+	 * @return minimum latitude
+	 */
+	public double getMinLatitude() {
+		return minLatitude;
+	}
+
+	/**
+	 * Get the maximum latitude in degrees
+	 *
+	 * @return maximum latitude
+	 */
+	public double getMaxLatitude() {
+		return maxLatitude;
+	}
+
+	/**
+	 * Get the center longitude in degrees
+	 *
+	 * @return center longitude
+	 */
+	public double getCenterLongitude() {
+		return centerLongitude;
+	}
+
+	/**
+	 * Get the center latitude in degrees
+	 *
+	 * @return center latitude
+	 */
+	public double getCenterLatitude() {
+		return centerLatitude;
+	}
+
+	/**
+	 * Get the maximum great circle distance in degrees from the center
+	 *
+	 * @return maximum distance, NaN if not limited
+	 */
+	public double getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Check if the domain contains the coordinate
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return true if contained
+	 */
+	public boolean contains(double longitude, double latitude) {
+		return latitude >= minLatitude && latitude <= maxLatitude
+				&& !Double.isNaN(inLongitudeRange(longitude))
+				&& (Double.isNaN(maxDistance)
+						|| distance(longitude, latitude) <= maxDistance);
+	}
+
+	/**
+	 * Apply the domain policy to the interleaved longitude latitude
+	 * coordinates from the source array into the destination array.
+	 * Coordinates within the domain are copied, and coordinates outside of
+	 * the domain are rejected, clamped, or wrapped by the policy. Rejected
+	 * coordinates are written as NaN values and their bits set in the failure
+	 * mask. The source and destination may be the same array with the same
+	 * offset to apply in place.
+	 *
+	 * @param policy
+	 *            domain policy
+	 * @param src
+	 *            source coordinates as [longitude, latitude, ...] or
+	 *            [longitude, latitude, z, ...] in degrees
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 or 3
+	 * @param count
+	 *            number of coordinates
+	 * @param failures
+	 *            failure mask of at least (count + 63) / 64 words, or null
+	 * @return number of rejected coordinates
+	 */
+	public int apply(ProjectionDomainPolicy policy, double[] src,
+			int srcOffset, double[] dst, int dstOffset, int dimension,
+			int count, long[] failures) {
+
+		int rejected = 0;
+
+		for (int i = 0; i < count; i++) {
+
+			int srcIndex = srcOffset + i * dimension;
+			int dstIndex = dstOffset + i * dimension;
+			double longitude = src[srcIndex];
+			double latitude = src[srcIndex + 1];
+			if (dimension == 3) {
+				dst[dstIndex + 2] = src[srcIndex + 2];
+			}
+
+			if (!contains(longitude, latitude)) {
+
+				boolean valid = false;
+				if (!Double.isNaN(longitude) && !Double.isNaN(latitude)) {
+					switch (policy) {
+					case CLAMP:
+						latitude = Math.max(minLatitude,
+								Math.min(maxLatitude, latitude));
+						longitude = clampLongitude(longitude);
+						if (!Double.isNaN(maxDistance)
+								&& distance(longitude, latitude) > maxDistance) {
+							clampDistance(longitude, latitude, dst, dstIndex);
+							longitude = dst[dstIndex];
+							latitude = dst[dstIndex + 1];
+						}
+						valid = true;
+						break;
+					case WRAP:
+						if (Double.isFinite(longitude)
+								&& Double.isFinite(latitude)) {
+							wrap(longitude, latitude, dst, dstIndex);
+							longitude = dst[dstIndex];
+							latitude = dst[dstIndex + 1];
+							valid = contains(longitude, latitude);
+						}
+						break;
+					default:
+					}
+				}
+
+				if (!valid) {
+					longitude = Double.NaN;
+					latitude = Double.NaN;
+					if (dimension == 3) {
+						dst[dstIndex + 2] = Double.NaN;
+					}
+					if (failures != null) {
+						failures[i >>> 6] |= 1L << i;
+					}
+					rejected++;
+				}
+			}
+
+			dst[dstIndex] = longitude;
+			dst[dstIndex + 1] = latitude;
+		}
+
+		return rejected;
+	}
+
+	/**
+	 * Get the longitude within the longitude range, shifting a longitude in
+	 * [-180, 180] by a full world width for ranges spanning the antimeridian
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @return longitude within the range, NaN if outside
+	 */
+	private double inLongitudeRange(double longitude) {
+		double halfWidth = ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH;
+		double inRange = Double.NaN;
+		if (longitude >= minLongitude && longitude <= maxLongitude) {
+			inRange = longitude;
+		} else if (longitude < -halfWidth || longitude > halfWidth) {
+			// outside of the world longitude range
+		} else if (minLongitude < -halfWidth
+				&& longitude - 2 * halfWidth >= minLongitude) {
+			inRange = longitude - 2 * halfWidth;
+		} else if (maxLongitude > halfWidth
+				&& longitude + 2 * halfWidth <= maxLongitude) {
+			inRange = longitude + 2 * halfWidth;
+		}
+		return inRange;
+	}
+
+	/**
+	 * Clamp the longitude to the nearest end of the longitude range
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @return clamped longitude
+	 */
+	private double clampLongitude(double longitude) {
+		double clamped = inLongitudeRange(longitude);
+		if (Double.isNaN(clamped)) {
+			if (maxLongitude - minLongitude >= 2
+					* ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH) {
+				clamped = Math.max(minLongitude,
+						Math.min(maxLongitude, longitude));
+			} else {
+				// Nearest range end by angular distance
+				double toMin = Math.abs(ProjectionConstants
+						.normalizeLongitude(longitude - minLongitude));
+				double toMax = Math.abs(ProjectionConstants
+						.normalizeLongitude(longitude - maxLongitude));
+				clamped = ProjectionConstants.normalizeLongitude(
+						toMin <= toMax ? minLongitude : maxLongitude);
+			}
+		} else {
+			clamped = ProjectionConstants.normalizeLongitude(clamped);
+		}
+		return clamped;
+	}
+
+	/**
+	 * Get the great circle distance in degrees from the center
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return distance in degrees
+	 */
+	private double distance(double longitude, double latitude) {
+		double phi0 = Math.toRadians(centerLatitude);
+		double phi = Math.toRadians(latitude);
+		double deltaLambda = Math.toRadians(longitude - centerLongitude);
+		double cosDistance = Math.sin(phi0) * Math.sin(phi)
+				+ Math.cos(phi0) * Math.cos(phi) * Math.cos(deltaLambda);
+		return Math.toDegrees(Math.acos(Math.max(-1.0, Math.min(1.0,
+				cosDistance))));
+	}
+
+	/**
+	 * Clamp the coordinate along the great circle from the center to the
+	 * maximum distance
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstIndex
+	 *            destination index of the clamped longitude and latitude
+	 */
+	private void clampDistance(double longitude, double latitude,
+			double[] dst, int dstIndex) {
+		double phi0 = Math.toRadians(centerLatitude);
+		double phi = Math.toRadians(latitude);
+		double deltaLambda = Math.toRadians(longitude - centerLongitude);
+		double bearing = Math.atan2(Math.sin(deltaLambda) * Math.cos(phi),
+				Math.cos(phi0) * Math.sin(phi) - Math.sin(phi0) * Math.cos(phi)
+						* Math.cos(deltaLambda));
+		double delta = Math.toRadians(maxDistance);
+		double clampedPhi = Math.asin(Math.sin(phi0) * Math.cos(delta)
+				+ Math.cos(phi0) * Math.sin(delta) * Math.cos(bearing));
+		double clampedLambda = Math.atan2(
+				Math.sin(bearing) * Math.sin(delta) * Math.cos(phi0),
+				Math.cos(delta) - Math.sin(phi0) * Math.sin(clampedPhi));
+		dst[dstIndex] = ProjectionConstants.normalizeLongitude(
+				centerLongitude + Math.toDegrees(clampedLambda));
+		dst[dstIndex + 1] = Math.toDegrees(clampedPhi);
+	}
+
+	/**
+	 * Wrap the coordinate longitude into [-180, 180] and latitude over the
+	 * poles into [-90, 90]
+	 *
+	 * @param longitude
+	 *            finite longitude in degrees
+	 * @param latitude
+	 *            finite latitude in degrees
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstIndex
+	 *            destination index of the wrapped longitude and latitude
+	 */
+	private static void wrap(double longitude, double latitude, double[] dst,
+			int dstIndex) {
+		double halfHeight = ProjectionConstants.WGS84_HALF_WORLD_LAT_HEIGHT;
+		// Latitude within a 360 degree cycle of [-180, 180]
+		latitude = ProjectionConstants.normalizeLongitude(latitude);
+		if (latitude > halfHeight) {
+			latitude = 2 * halfHeight - latitude;
+			longitude += ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH;
+		} else if (latitude < -halfHeight) {
+			latitude = -2 * halfHeight - latitude;
+			longitude += ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH;
+		}
+		dst[dstIndex] = ProjectionConstants.normalizeLongitude(longitude);
+		dst[dstIndex + 1] = latitude;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("longitude: [").append(minLongitude).append(", ")
+				.append(maxLongitude).append("], latitude: [")
+				.append(minLatitude).append(", ").append(maxLatitude)
+				.append("]");
+		if (!Double.isNaN(maxDistance)) {
+			builder.append(", center: [").append(centerLongitude)
+					.append(", ").append(centerLatitude)
+					.append("], max distance: ").append(maxDistance);
+		}
+		return builder.toString();
+	}
+
+}
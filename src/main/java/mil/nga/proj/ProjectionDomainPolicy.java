@@ -0,0 +1,28 @@
+package mil.nga.proj;
+
+/**
+ * Handling of longitude latitude coordinates outside of a
+ * {@link ProjectionDomain} before a bulk transform
+ * 
+ * @author osbornb
+ * @since 1.1.5
+ */
+public enum ProjectionDomainPolicy {
+
+	/**
+	 * Reject coordinates outside of the domain as failures
+	 */
+	REJECT,
+
+	/**
+	 * Clamp coordinates outside of the domain to the nearest domain edge
+	 */
+	CLAMP,
+
+	/**
+	 * Wrap longitudes into [-180, 180] and latitudes over the poles into
+	 * [-90, 90], rejecting wrapped coordinates still outside of the domain
+	 */
+	WRAP;
+
+}
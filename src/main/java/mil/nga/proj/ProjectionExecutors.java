@@ -0,0 +1,34 @@
+package mil.nga.proj;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shared executor of asynchronous projection resolution and parallel
+ * transform workers. Uses the common fork join pool, with a Java 21+
+ * multi-release implementation running each task on a virtual thread.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionExecutors {
+
+	/**
+	 * Get the shared executor
+	 *
+	 * @return executor
+	 */
+	public static Executor getExecutor() {
+		return ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Check if the shared executor runs tasks on virtual threads
+	 *
+	 * @return true if virtual threads
+	 */
+	public static boolean isVirtual() {
+		return false;
+	}
+
+}
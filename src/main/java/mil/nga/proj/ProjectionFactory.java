@@ -2,8 +2,15 @@ package mil.nga.proj;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,9 +48,22 @@ public class ProjectionFactory {
 	private static final Projections projections = new Projections();
 
 	/**
-	 * Projection factory retrieval order
+	 * Canonical coordinate reference systems by fingerprint, sharing their
+	 * projection and datum with equivalent cached projections
 	 */
-	private static final Set<ProjectionFactoryType> order = new LinkedHashSet<>();
+	private static final Map<String, CoordinateReferenceSystem> canonicalCRSs = new ConcurrentHashMap<>();
+
+	/**
+	 * Shared transform templates between canonical coordinate reference
+	 * systems, by from and to fingerprint
+	 */
+	private static final Map<String, ProjectionTransform> transformTemplates = new ConcurrentHashMap<>();
+
+	/**
+	 * Projection factory retrieval order, replaced as an unmodifiable set on
+	 * each change so concurrent retrievals read a consistent order
+	 */
+	private static volatile Set<ProjectionFactoryType> order;
 	static {
 		resetOrder();
 	}
@@ -83,9 +103,12 @@ public class ProjectionFactory {
 	 * @return true if removed
 	 */
 	public static boolean removeOrderType(ProjectionFactoryType type) {
-		boolean removed = order.remove(type);
-		if (order.isEmpty()) {
+		Set<ProjectionFactoryType> updatedOrder = getOrder();
+		boolean removed = updatedOrder.remove(type);
+		if (updatedOrder.isEmpty()) {
 			resetOrder();
+		} else {
+			order = Collections.unmodifiableSet(updatedOrder);
 		}
 		return removed;
 	}
@@ -97,13 +120,10 @@ public class ProjectionFactory {
 	 *            factory retrieval types
 	 */
 	public static void setOrder(ProjectionFactoryType... types) {
-		order.clear();
 		if (types == null || types.length == 0) {
 			resetOrder();
 		} else {
-			for (ProjectionFactoryType type : types) {
-				order.add(type);
-			}
+			order = Collections.unmodifiableSet(buildOrder(types));
 		}
 	}
 
@@ -224,6 +244,55 @@ public class ProjectionFactory {
 		return getProjection(authority, code, new String[] {}, null);
 	}
 
+	/**
+	 * Asynchronously get the projection for the EPSG code on the shared
+	 * {@link ProjectionExecutors} executor
+	 * 
+	 * @param epsg
+	 *            EPSG coordinate code
+	 * @return projection future
+	 * @since 1.1.5
+	 */
+	public static CompletableFuture<Projection> getProjectionAsync(
+			long epsg) {
+		return getProjectionAsync(ProjectionConstants.AUTHORITY_EPSG,
+				String.valueOf(epsg));
+	}
+
+	/**
+	 * Asynchronously get the projection for the projection name, expected as
+	 * 'authority:code' or 'epsg_code', on the shared
+	 * {@link ProjectionExecutors} executor
+	 * 
+	 * @param name
+	 *            projection name
+	 * @return projection future
+	 * @since 1.1.5
+	 */
+	public static CompletableFuture<Projection> getProjectionAsync(
+			String name) {
+		return CompletableFuture.supplyAsync(() -> getProjection(name),
+				ProjectionExecutors.getExecutor());
+	}
+
+	/**
+	 * Asynchronously get the projection for authority and code on the shared
+	 * {@link ProjectionExecutors} executor
+	 * 
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            authority coordinate code
+	 * @return projection future
+	 * @since 1.1.5
+	 */
+	public static CompletableFuture<Projection> getProjectionAsync(
+			String authority, String code) {
+		return CompletableFuture.supplyAsync(
+				() -> getProjection(authority, code),
+				ProjectionExecutors.getExecutor());
+	}
+
 	/**
 	 * Get the cacheless projection for authority and code
 	 * 
@@ -575,7 +644,11 @@ public class ProjectionFactory {
 	public static Projection getProjection(Set<ProjectionFactoryType> types,
 			String authority, String code, String[] params, String definition) {
 
+		ResolutionEvent event = new ResolutionEvent();
+		event.begin();
+
 		Projection projection = null;
+		ProjectionFactoryType resolvedType = null;
 
 		for (ProjectionFactoryType type : types) {
 
@@ -602,11 +675,21 @@ public class ProjectionFactory {
 			}
 
 			if (projection != null) {
+				resolvedType = type;
 				break;
 			}
 
 		}
 
+		event.end();
+		if (event.shouldCommit()) {
+			event.authority = authority;
+			event.code = code;
+			event.type = resolvedType != null ? resolvedType.name() : null;
+			event.cacheHit = resolvedType == ProjectionFactoryType.CACHE;
+			event.commit();
+		}
+
 		if (projection == null) {
 			throw new ProjectionException(
 					"Failed to create projection for authority: " + authority
@@ -710,7 +793,13 @@ public class ProjectionFactory {
 	private static Projection getProjectionByDefinition(boolean cacheless,
 			String definition) {
 
+		ResolutionEvent event = new ResolutionEvent();
+		event.begin();
+
 		Projection projection = null;
+		String authority = null;
+		String code = null;
+		boolean cacheHit = false;
 
 		if (definition != null && !definition.isEmpty()) {
 
@@ -724,9 +813,6 @@ public class ProjectionFactory {
 
 			if (definitionCRS != null) {
 
-				String authority = null;
-				String code = null;
-
 				if (definitionCRS.hasIdentifiers()) {
 					Identifier identifier = definitionCRS.getIdentifier(0);
 					authority = identifier.getName();
@@ -748,6 +834,7 @@ public class ProjectionFactory {
 								.equals(projection.getDefinition())) {
 							projection = null;
 						}
+						cacheHit = projection != null;
 
 					}
 
@@ -772,6 +859,9 @@ public class ProjectionFactory {
 						crs = CRSParser.convertAsParams(definitionCRS);
 					}
 					if (crs != null) {
+						if (cacheProjection) {
+							crs = canonicalCRS(crs);
+						}
 						projection = new Projection(authority, code, crs,
 								definition, definitionCRS);
 						if (cacheProjection) {
@@ -785,6 +875,18 @@ public class ProjectionFactory {
 
 		}
 
+		event.end();
+		if (event.shouldCommit()) {
+			event.authority = authority;
+			event.code = code;
+			if (projection != null) {
+				event.type = cacheHit ? ProjectionFactoryType.CACHE.name()
+						: ProjectionFactoryType.DEFINITION.name();
+			}
+			event.cacheHit = cacheHit;
+			event.commit();
+		}
+
 		if (projection == null) {
 			throw new ProjectionException(
 					"Failed to create projection for definition: "
@@ -816,6 +918,9 @@ public class ProjectionFactory {
 	 */
 	public static Projection getProjectionByParams(String[] params) {
 
+		ResolutionEvent event = new ResolutionEvent();
+		event.begin();
+
 		Projection projection = null;
 
 		if (params != null && params.length > 0) {
@@ -836,6 +941,14 @@ public class ProjectionFactory {
 
 		}
 
+		event.end();
+		if (event.shouldCommit()) {
+			if (projection != null) {
+				event.type = ProjectionFactoryType.PARAMETERS.name();
+			}
+			event.commit();
+		}
+
 		if (projection == null) {
 			throw new ProjectionException(
 					"Failed to create projection for params: " + params);
@@ -864,6 +977,16 @@ public class ProjectionFactory {
 		return projections.getProjections(authority);
 	}
 
+	/**
+	 * Get the authorities of the cached projections
+	 * 
+	 * @return authorities
+	 * @since 1.1.5
+	 */
+	public static Set<String> getAuthorities() {
+		return projections.getAuthorities();
+	}
+
 	/**
 	 * Parse a projection name, expected as 'authority:code' or 'epsg_code',
 	 * into an authority and code
@@ -916,6 +1039,8 @@ public class ProjectionFactory {
 	 */
 	public static void clear() {
 		projections.clear();
+		canonicalCRSs.clear();
+		transformTemplates.clear();
 	}
 
 	/**
@@ -926,6 +1051,7 @@ public class ProjectionFactory {
 	 */
 	public static void clear(String authority) {
 		projections.clear(authority);
+		pruneCanonicalCRSs();
 	}
 
 	/**
@@ -937,7 +1063,7 @@ public class ProjectionFactory {
 	 *            coordinate code
 	 */
 	public static void clear(String authority, long code) {
-		projections.remove(authority, code);
+		clear(authority, String.valueOf(code));
 	}
 
 	/**
@@ -950,6 +1076,26 @@ public class ProjectionFactory {
 	 */
 	public static void clear(String authority, String code) {
 		projections.remove(authority, code);
+		pruneCanonicalCRSs();
+	}
+
+	/**
+	 * Clear the authority projection codes, pruning the shared canonical
+	 * state once for all codes
+	 * 
+	 * @param authority
+	 *            coordinate authority
+	 * @param codes
+	 *            coordinate codes
+	 * @since 1.1.5
+	 */
+	public static void clear(String authority, Collection<String> codes) {
+		if (!codes.isEmpty()) {
+			for (String code : codes) {
+				projections.remove(authority, code);
+			}
+			pruneCanonicalCRSs();
+		}
 	}
 
 	/**
@@ -990,8 +1136,8 @@ public class ProjectionFactory {
 					crs = CRSParser.convert(definitionCRS);
 				}
 				if (crs != null) {
-					projection = new Projection(authority, code, crs,
-							definition, definitionCRS);
+					projection = new Projection(authority, code,
+							canonicalCRS(crs), definition, definitionCRS);
 					projections.addProjection(projection);
 				}
 			} catch (Exception e) {
@@ -1032,8 +1178,8 @@ public class ProjectionFactory {
 					crs = CRSParser.convertAsParams(definitionCRS);
 				}
 				if (crs != null) {
-					projection = new Projection(authority, code, crs,
-							definition, definitionCRS);
+					projection = new Projection(authority, code,
+							canonicalCRS(crs), definition, definitionCRS);
 					projections.addProjection(projection);
 				}
 			} catch (Exception e) {
@@ -1072,7 +1218,8 @@ public class ProjectionFactory {
 				CoordinateReferenceSystem crs = CRSParser.getCRSFactory()
 						.createFromParameters(coordinateName(authority, code),
 								params);
-				projection = new Projection(authority, code, crs, definition);
+				projection = new Projection(authority, code,
+						canonicalCRS(crs), definition);
 				projections.addProjection(projection);
 			} catch (Exception e) {
 				logger.log(Level.WARNING,
@@ -1109,7 +1256,8 @@ public class ProjectionFactory {
 				CoordinateReferenceSystem crs = CRSParser.getCRSFactory()
 						.createFromParameters(coordinateName(authority, code),
 								parameters);
-				projection = new Projection(authority, code, crs, definition);
+				projection = new Projection(authority, code,
+						canonicalCRS(crs), definition);
 				projections.addProjection(projection);
 			} catch (Exception e) {
 				logger.log(Level.WARNING,
@@ -1143,7 +1291,8 @@ public class ProjectionFactory {
 		try {
 			CoordinateReferenceSystem crs = CRSParser.getCRSFactory()
 					.createFromName(name);
-			projection = new Projection(authority, code, crs, definition);
+			projection = new Projection(authority, code,
+					canonicalCRS(crs), definition);
 			projections.addProjection(projection);
 		} catch (Exception e) {
 			logger.log(Level.WARNING,
@@ -1153,6 +1302,112 @@ public class ProjectionFactory {
 		return projection;
 	}
 
+	/**
+	 * Get the coordinate reference system for a cached projection, sharing
+	 * the projection and datum of the canonical coordinate reference system
+	 * of all equivalent projections. The coordinate reference system is
+	 * registered as canonical if the first with its fingerprint. Coordinate
+	 * reference systems without a complete fingerprint are not shared.
+	 * 
+	 * @param crs
+	 *            coordinate reference system
+	 * @return coordinate reference system sharing the canonical projection
+	 *         and datum
+	 */
+	private static CoordinateReferenceSystem canonicalCRS(
+			CoordinateReferenceSystem crs) {
+		CoordinateReferenceSystem canonicalCRS = crs;
+		if (crs != null && CRSFingerprint.isComplete(crs)) {
+			String fingerprint = CRSFingerprint.create(crs);
+			CoordinateReferenceSystem canonical = canonicalCRSs
+					.putIfAbsent(fingerprint, crs);
+			if (canonical != null && canonical != crs) {
+				// Keep the name and parameters of this coordinate reference
+				// system
+				canonicalCRS = new CoordinateReferenceSystem(crs.getName(),
+						crs.getParameters(), canonical.getDatum(),
+						canonical.getProjection());
+			}
+		}
+		return canonicalCRS;
+	}
+
+	/**
+	 * Remove canonical coordinate reference systems and transform templates
+	 * no longer shared by a cached projection
+	 */
+	private static void pruneCanonicalCRSs() {
+		Set<org.locationtech.proj4j.proj.Projection> used = Collections
+				.newSetFromMap(new IdentityHashMap<>());
+		for (String authority : projections.getAuthorities()) {
+			AuthorityProjections authorityProjections = projections
+					.getProjections(authority);
+			if (authorityProjections != null) {
+				for (Projection projection : authorityProjections
+						.getProjections()) {
+					used.add(projection.getCrs().getProjection());
+				}
+			}
+		}
+		Set<String> removed = new HashSet<>();
+		for (Map.Entry<String, CoordinateReferenceSystem> entry : canonicalCRSs
+				.entrySet()) {
+			if (!used.contains(entry.getValue().getProjection())
+					&& canonicalCRSs.remove(entry.getKey(), entry.getValue())) {
+				removed.add(entry.getKey());
+			}
+		}
+		if (!removed.isEmpty()) {
+			transformTemplates.keySet().removeIf(key -> removed
+					.contains(key.substring(0, key.indexOf('\n')))
+					|| removed.contains(key.substring(key.indexOf('\n') + 1)));
+		}
+	}
+
+	/**
+	 * Get the shared transform template between the projections, creating it
+	 * if needed. Templates are only shared between projections with canonical
+	 * coordinate reference systems.
+	 * 
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @return transform template, null if not shared
+	 */
+	static ProjectionTransform getTransformTemplate(Projection fromProjection,
+			Projection toProjection) {
+		ProjectionTransform template = null;
+		if (isCanonical(fromProjection) && isCanonical(toProjection)) {
+			template = transformTemplates.computeIfAbsent(
+					fromProjection.getFingerprint() + "\n"
+							+ toProjection.getFingerprint(),
+					key -> new ProjectionTransform(fromProjection,
+							toProjection, null));
+		}
+		return template;
+	}
+
+	/**
+	 * Determine if the projection shares the projection of a canonical
+	 * coordinate reference system
+	 * 
+	 * @param projection
+	 *            projection
+	 * @return true if canonical
+	 */
+	private static boolean isCanonical(Projection projection) {
+		CoordinateReferenceSystem crs = projection.getCrs();
+		boolean canonical = false;
+		if (CRSFingerprint.isComplete(crs)) {
+			CoordinateReferenceSystem canonicalCRS = canonicalCRSs
+					.get(projection.getFingerprint());
+			canonical = canonicalCRS != null
+					&& canonicalCRS.getProjection() == crs.getProjection();
+		}
+		return canonical;
+	}
+
 	/**
 	 * Build a coordinate name from the authority and code
 	 * 
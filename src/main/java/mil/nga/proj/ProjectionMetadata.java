@@ -0,0 +1,352 @@
+package mil.nga.proj;
+
+import java.util.Map;
+
+import org.locationtech.proj4j.Registry;
+import org.locationtech.proj4j.datum.Datum;
+
+/**
+ * Projection metadata parsed from the proj4 parameters of an authority code,
+ * without creating a coordinate reference system
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionMetadata {
+
+	/**
+	 * Geographic degrees units
+	 */
+	public static final String UNITS_DEGREES = "degrees";
+
+	/**
+	 * Metre units
+	 */
+	public static final String UNITS_METRES = "m";
+
+	/**
+	 * Coordinate authority
+	 */
+	private final String authority;
+
+	/**
+	 * Coordinate code
+	 */
+	private final String code;
+
+	/**
+	 * Proj4 parameters
+	 */
+	private final String parameters;
+
+	/**
+	 * Proj4 projection name
+	 */
+	private final String projectionName;
+
+	/**
+	 * Proj4 datum
+	 */
+	private final String datum;
+
+	/**
+	 * Proj4 ellipsoid
+	 */
+	private final String ellipsoid;
+
+	/**
+	 * Proj4 units
+	 */
+	private final String units;
+
+	/**
+	 * Geographic flag
+	 */
+	private final boolean geographic;
+
+	/**
+	 * Parse the projection metadata from proj4 parameters
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @param parameters
+	 *            proj4 parameters
+	 * @return projection metadata
+	 */
+	public static ProjectionMetadata parse(String authority, String code,
+			String parameters) {
+		return parse(authority, code, parameters, null);
+	}
+
+	/**
+	 * Parse the projection metadata from proj4 parameters, sharing repeated
+	 * values through the pool
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @param parameters
+	 *            proj4 parameters
+	 * @param pool
+	 *            shared value pool, null to not share values
+	 * @return projection metadata
+	 */
+	static ProjectionMetadata parse(String authority, String code,
+			String parameters, Map<String, String> pool) {
+
+		String projectionName = null;
+		String datum = null;
+		String ellipsoid = null;
+		String units = null;
+		boolean toMeter = false;
+
+		// Scan the +key=value parameters without regular expressions,
+		// only creating the values of catalog keys
+		int length = parameters.length();
+		int start = 0;
+		while (start < length) {
+			while (start < length
+					&& Character.isWhitespace(parameters.charAt(start))) {
+				start++;
+			}
+			int end = start;
+			int equals = -1;
+			while (end < length
+					&& !Character.isWhitespace(parameters.charAt(end))) {
+				if (equals == -1 && parameters.charAt(end) == '=') {
+					equals = end;
+				}
+				end++;
+			}
+			if (equals > start + 1 && parameters.charAt(start) == '+') {
+				int keyLength = equals - start - 1;
+				if (isKey(parameters, start, keyLength, "proj")) {
+					projectionName = parameters.substring(equals + 1, end);
+				} else if (isKey(parameters, start, keyLength, "datum")) {
+					datum = parameters.substring(equals + 1, end);
+				} else if (isKey(parameters, start, keyLength, "ellps")) {
+					ellipsoid = parameters.substring(equals + 1, end);
+				} else if (isKey(parameters, start, keyLength, "units")) {
+					units = parameters.substring(equals + 1, end);
+				} else if (isKey(parameters, start, keyLength, "to_meter")) {
+					toMeter = true;
+				}
+			}
+			start = end;
+		}
+
+		if (ellipsoid == null && datum != null) {
+			ellipsoid = datumEllipsoid(datum);
+		}
+
+		boolean geographic = isGeographic(projectionName);
+		if (units == null && !toMeter) {
+			units = geographic ? UNITS_DEGREES : UNITS_METRES;
+		}
+
+		return new ProjectionMetadata(pool(pool, authority.toUpperCase()),
+				code, parameters, pool(pool, projectionName),
+				pool(pool, datum), pool(pool, ellipsoid), pool(pool, units),
+				geographic);
+	}
+
+	/**
+	 * Check if the parameter starting at the index has the key
+	 *
+	 * @param parameters
+	 *            proj4 parameters
+	 * @param start
+	 *            parameter start index, at the '+' prefix
+	 * @param keyLength
+	 *            parameter key length
+	 * @param key
+	 *            key
+	 * @return true if the parameter key
+	 */
+	private static boolean isKey(String parameters, int start, int keyLength,
+			String key) {
+		return keyLength == key.length()
+				&& parameters.startsWith(key, start + 1);
+	}
+
+	/**
+	 * Get the ellipsoid of a proj4 datum
+	 *
+	 * @param datum
+	 *            proj4 datum
+	 * @return ellipsoid or null
+	 */
+	private static String datumEllipsoid(String datum) {
+		String ellipsoid = null;
+		for (Datum registryDatum : Registry.datums) {
+			if (registryDatum.getCode().equals(datum)) {
+				ellipsoid = registryDatum.getEllipsoid().getShortName();
+				break;
+			}
+		}
+		return ellipsoid;
+	}
+
+	/**
+	 * Check if the proj4 projection name is a geographic longitude latitude
+	 * projection
+	 *
+	 * @param projectionName
+	 *            proj4 projection name
+	 * @return true if geographic
+	 */
+	private static boolean isGeographic(String projectionName) {
+		boolean geographic = false;
+		if (projectionName != null) {
+			switch (projectionName) {
+			case "longlat":
+			case "latlong":
+			case "lonlat":
+			case "latlon":
+				geographic = true;
+				break;
+			default:
+			}
+		}
+		return geographic;
+	}
+
+	/**
+	 * Get the shared pool instance of the value
+	 *
+	 * @param pool
+	 *            value pool, may be null
+	 * @param value
+	 *            value
+	 * @return pooled value
+	 */
+	private static String pool(Map<String, String> pool, String value) {
+		String pooled = value;
+		if (pool != null && value != null) {
+			pooled = pool.putIfAbsent(value, value);
+			if (pooled == null) {
+				pooled = value;
+			}
+		}
+		return pooled;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param authority
+	 *            coordinate authority
+	 * @param code
+	 *            coordinate code
+	 * @param parameters
+	 *            proj4 parameters
+	 * @param projectionName
+	 *            proj4 projection name
+	 * @param datum
+	 *            proj4 datum
+	 * @param ellipsoid
+	 *            proj4 ellipsoid
+	 * @param units
+	 *            proj4 units
+	 * @param geographic
+	 *            geographic flag
+	 */
+	private ProjectionMetadata(String authority, String code,
+			String parameters, String projectionName, String datum,
+			String ellipsoid, String units, boolean geographic) {
+		this.authority = authority;
+		this.code = code;
+		this.parameters = parameters;
+		this.projectionName = projectionName;
+		this.datum = datum;
+		this.ellipsoid = ellipsoid;
+		this.units = units;
+		this.geographic = geographic;
+	}
+
+	/**
+	 * Get the coordinate authority
+	 *
+	 * @return authority
+	 */
+	public String getAuthority() {
+		return authority;
+	}
+
+	/**
+	 * Get the coordinate code
+	 *
+	 * @return code
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Get the proj4 parameters
+	 *
+	 * @return parameters
+	 */
+	public String getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Get the proj4 projection name (+proj), such as longlat, tmerc, or utm
+	 *
+	 * @return projection name
+	 */
+	public String getProjectionName() {
+		return projectionName;
+	}
+
+	/**
+	 * Get the proj4 datum (+datum)
+	 *
+	 * @return datum or null
+	 */
+	public String getDatum() {
+		return datum;
+	}
+
+	/**
+	 * Get the proj4 ellipsoid (+ellps), or the ellipsoid of the datum
+	 *
+	 * @return ellipsoid or null
+	 */
+	public String getEllipsoid() {
+		return ellipsoid;
+	}
+
+	/**
+	 * Get the proj4 units (+units), defaulting to
+	 * {@value #UNITS_DEGREES} for geographic and {@value #UNITS_METRES} for
+	 * other projections
+	 *
+	 * @return units, null when only defined by a custom +to_meter
+	 */
+	public String getUnits() {
+		return units;
+	}
+
+	/**
+	 * Check if a geographic longitude latitude projection
+	 *
+	 * @return true if geographic
+	 */
+	public boolean isGeographic() {
+		return geographic;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return authority + ":" + code;
+	}
+
+}
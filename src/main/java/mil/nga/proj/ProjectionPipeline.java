@@ -0,0 +1,376 @@
+package mil.nga.proj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.locationtech.proj4j.ProjCoordinate;
+
+/**
+ * Pipeline of chained projection transforms. Identity steps between
+ * equivalent projections are dropped and inverse step pairs (A to B to A) are
+ * cancelled when the pipeline is created. The remaining steps run in a single
+ * bulk pass over blocks of a shared coordinate buffer.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionPipeline {
+
+	/**
+	 * Default number of coordinates transformed through all steps per block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/**
+	 * From Projection
+	 */
+	private final Projection fromProjection;
+
+	/**
+	 * To Projection
+	 */
+	private final Projection toProjection;
+
+	/**
+	 * Simplified transform steps
+	 */
+	private final List<ProjectionTransform> transforms;
+
+	/**
+	 * Number of coordinates transformed through all steps per block
+	 */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * Create a projection pipeline
+	 *
+	 * @param transforms
+	 *            chained projection transforms
+	 * @return projection pipeline
+	 */
+	public static ProjectionPipeline create(
+			ProjectionTransform... transforms) {
+		return new ProjectionPipeline(Arrays.asList(transforms));
+	}
+
+	/**
+	 * Create a projection pipeline
+	 *
+	 * @param transforms
+	 *            chained projection transforms
+	 * @return projection pipeline
+	 */
+	public static ProjectionPipeline create(
+			List<ProjectionTransform> transforms) {
+		return new ProjectionPipeline(transforms);
+	}
+
+	/**
+	 * Create a projection pipeline transforming through each projection in
+	 * order
+	 *
+	 * @param projections
+	 *            chained projections, at least two
+	 * @return projection pipeline
+	 */
+	public static ProjectionPipeline create(Projection... projections) {
+		if (projections.length < 2) {
+			throw new IllegalArgumentException(
+					"A pipeline requires at least two projections, projections: "
+							+ projections.length);
+		}
+		List<ProjectionTransform> transforms = new ArrayList<>();
+		for (int i = 1; i < projections.length; i++) {
+			if (!projections[i - 1].equals(projections[i])) {
+				transforms.add(
+						projections[i - 1].getTransformation(projections[i]));
+			}
+		}
+		return new ProjectionPipeline(projections[0],
+				projections[projections.length - 1], transforms);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transforms
+	 *            chained projection transforms
+	 */
+	public ProjectionPipeline(List<ProjectionTransform> transforms) {
+		this(first(transforms).getFromProjection(),
+				transforms.get(transforms.size() - 1).getToProjection(),
+				transforms);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @param transforms
+	 *            chained projection transforms
+	 */
+	private ProjectionPipeline(Projection fromProjection,
+			Projection toProjection, List<ProjectionTransform> transforms) {
+		this.fromProjection = fromProjection;
+		this.toProjection = toProjection;
+		this.transforms = Collections.unmodifiableList(simplify(transforms));
+	}
+
+	/**
+	 * Get the first transform, validating the transforms are not empty
+	 *
+	 * @param transforms
+	 *            transforms
+	 * @return first transform
+	 */
+	private static ProjectionTransform first(
+			List<ProjectionTransform> transforms) {
+		if (transforms == null || transforms.isEmpty()) {
+			throw new IllegalArgumentException(
+					"A pipeline requires at least one transform");
+		}
+		return transforms.get(0);
+	}
+
+	/**
+	 * Validate the chained transforms and simplify by dropping identity steps
+	 * and cancelling inverse step pairs
+	 *
+	 * @param transforms
+	 *            chained projection transforms
+	 * @return simplified transforms
+	 */
+	private static List<ProjectionTransform> simplify(
+			List<ProjectionTransform> transforms) {
+
+		List<ProjectionTransform> steps = new ArrayList<>();
+
+		Projection previous = null;
+		for (ProjectionTransform transform : transforms) {
+
+			Projection from = transform.getFromProjection();
+			if (previous != null && !previous.equals(from)
+					&& !previous.isEquivalent(from)) {
+				throw new ProjectionException(
+						"Pipeline transforms are not chained. Expected from projection: "
+								+ previous + ", found: "
+								+ transform.getFromProjection());
+			}
+			previous = transform.getToProjection();
+
+			if (transform.isIdentity()) {
+				continue;
+			}
+
+			int last = steps.size() - 1;
+			if (last >= 0 && steps.get(last).getFromProjection()
+					.isEquivalent(transform.getToProjection())) {
+				steps.remove(last);
+			} else {
+				steps.add(transform);
+			}
+
+		}
+
+		return steps;
+	}
+
+	/**
+	 * Get the from projection of the pipeline
+	 *
+	 * @return from projection
+	 */
+	public Projection getFromProjection() {
+		return fromProjection;
+	}
+
+	/**
+	 * Get the to projection of the pipeline
+	 *
+	 * @return to projection
+	 */
+	public Projection getToProjection() {
+		return toProjection;
+	}
+
+	/**
+	 * Get the simplified transform steps
+	 *
+	 * @return unmodifiable transforms
+	 */
+	public List<ProjectionTransform> getTransforms() {
+		return transforms;
+	}
+
+	/**
+	 * Get the number of simplified transform steps
+	 *
+	 * @return transform steps
+	 */
+	public int size() {
+		return transforms.size();
+	}
+
+	/**
+	 * Is the simplified pipeline an identity with no transform steps?
+	 *
+	 * @return true if identity
+	 */
+	public boolean isIdentity() {
+		return transforms.isEmpty();
+	}
+
+	/**
+	 * Get the number of coordinates transformed through all steps per block
+	 *
+	 * @return block size
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Set the number of coordinates transformed through all steps per block
+	 *
+	 * @param blockSize
+	 *            block size
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException(
+					"Block size must be positive, block size: " + blockSize);
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Get the inverse pipeline
+	 *
+	 * @return inverse pipeline
+	 */
+	public ProjectionPipeline getInversePipeline() {
+		List<ProjectionTransform> inverse = new ArrayList<>();
+		for (int i = transforms.size() - 1; i >= 0; i--) {
+			inverse.add(transforms.get(i).getInverseTransformation());
+		}
+		return new ProjectionPipeline(toProjection, fromProjection, inverse);
+	}
+
+	/**
+	 * Transform the projected coordinate
+	 *
+	 * @param from
+	 *            from coordinate
+	 * @return to coordinate
+	 */
+	public ProjCoordinate transform(ProjCoordinate from) {
+		ProjCoordinate to = new ProjCoordinate(from.x, from.y, from.z);
+		for (ProjectionTransform transform : transforms) {
+			transform.transform(to, to);
+		}
+		return to;
+	}
+
+	/**
+	 * Transform a x and y location
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return transformed coordinates as [x, y]
+	 */
+	public double[] transform(double x, double y) {
+		double[] coordinate = new double[] { x, y };
+		transform(coordinate, 0, coordinate, 0, 2, 1);
+		return coordinate;
+	}
+
+	/**
+	 * Transform the interleaved coordinates
+	 *
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @return transformed coordinates
+	 */
+	public double[] transform(double[] coordinates, int dimension) {
+		ProjectionTransform.validateDimension(dimension);
+		double[] transformed = new double[coordinates.length];
+		transform(coordinates, 0, transformed, 0, dimension,
+				coordinates.length / dimension);
+		return transformed;
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array through all transform steps. Each block of coordinates
+	 * is transformed by the first step into the destination and then in place
+	 * by the remaining steps. The source and destination may be the same array
+	 * with the same offset to transform in place.
+	 *
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 */
+	public void transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count) {
+		ProjectionTransform.validateDimension(dimension);
+
+		if (transforms.isEmpty()) {
+			if (src != dst || srcOffset != dstOffset) {
+				System.arraycopy(src, srcOffset, dst, dstOffset,
+						count * dimension);
+			}
+			return;
+		}
+
+		for (int start = 0; start < count; start += blockSize) {
+
+			int blockCount = Math.min(blockSize, count - start);
+			int blockSrcOffset = srcOffset + start * dimension;
+			int blockDstOffset = dstOffset + start * dimension;
+
+			transforms.get(0).transform(src, blockSrcOffset, dst,
+					blockDstOffset, dimension, blockCount);
+			for (int i = 1; i < transforms.size(); i++) {
+				transforms.get(i).transform(dst, blockDstOffset, dst,
+						blockDstOffset, dimension, blockCount);
+			}
+
+		}
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(fromProjection);
+		for (ProjectionTransform transform : transforms) {
+			builder.append(" -> ").append(transform.getToProjection());
+		}
+		if (transforms.isEmpty()) {
+			builder.append(" -> ").append(toProjection);
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,496 @@
+package mil.nga.proj;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive stream processor transforming batches of interleaved coordinates.
+ * Each received batch is published as one new transformed batch, so
+ * downstream demand is passed upstream as is and no batches are buffered.
+ * Large batches are divided into chunks of the batch size and transformed by
+ * up to the configured parallelism, each worker using its own copy of the
+ * projection transform. Supports a single subscriber.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionProcessor
+		implements Flow.Processor<double[], double[]> {
+
+	/**
+	 * Default number of coordinates per parallel chunk
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+
+	/**
+	 * Projection transforms, one per worker
+	 */
+	private final ProjectionTransform[] transforms;
+
+	/**
+	 * Coordinate dimension
+	 */
+	private final int dimension;
+
+	/**
+	 * Number of coordinates per parallel chunk
+	 */
+	private final int batchSize;
+
+	/**
+	 * Executor of additional parallel workers
+	 */
+	private final Executor executor;
+
+	/**
+	 * Upstream subscription
+	 */
+	private Flow.Subscription upstream;
+
+	/**
+	 * Downstream subscriber
+	 */
+	private Flow.Subscriber<? super double[]> downstream;
+
+	/**
+	 * Downstream demand requested before the upstream subscription
+	 */
+	private long pending;
+
+	/**
+	 * Cancelled or terminated flag
+	 */
+	private volatile boolean done;
+
+	/**
+	 * Downstream subscriber onSubscribe called
+	 */
+	private boolean subscribed;
+
+	/**
+	 * Terminal completion, delivered once subscribed
+	 */
+	private boolean completed;
+
+	/**
+	 * Terminal error, delivered once subscribed
+	 */
+	private Throwable error;
+
+	/**
+	 * Downstream emissions in progress or missed, serializing the batches
+	 * and the terminal signal from upstream and requesting threads
+	 */
+	private final AtomicInteger emitting = new AtomicInteger();
+
+	/**
+	 * Terminal signal delivered downstream, accessed while emitting
+	 */
+	private boolean terminated;
+
+	/**
+	 * Constructor, using the available processors as the parallelism
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 */
+	public ProjectionProcessor(ProjectionTransform transform, int dimension) {
+		this(transform, dimension, Runtime.getRuntime().availableProcessors(),
+				DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor, using the shared {@link ProjectionExecutors} executor
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param parallelism
+	 *            maximum number of workers transforming a batch
+	 * @param batchSize
+	 *            number of coordinates per parallel chunk
+	 */
+	public ProjectionProcessor(ProjectionTransform transform, int dimension,
+			int parallelism, int batchSize) {
+		this(transform, dimension, parallelism, batchSize,
+				ProjectionExecutors.getExecutor());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param parallelism
+	 *            maximum number of workers transforming a batch
+	 * @param batchSize
+	 *            number of coordinates per parallel chunk
+	 * @param executor
+	 *            executor of additional parallel workers
+	 */
+	public ProjectionProcessor(ProjectionTransform transform, int dimension,
+			int parallelism, int batchSize, Executor executor) {
+		ProjectionTransform.validateDimension(dimension);
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"Parallelism must be positive, parallelism: "
+							+ parallelism);
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException(
+					"Batch size must be positive, batch size: " + batchSize);
+		}
+		this.transforms = new ProjectionTransform[parallelism];
+		this.transforms[0] = new ProjectionTransform(transform);
+		this.dimension = dimension;
+		this.batchSize = batchSize;
+		this.executor = executor;
+	}
+
+	/**
+	 * Get the coordinate dimension
+	 *
+	 * @return dimension
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Get the maximum number of workers transforming a batch
+	 *
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return transforms.length;
+	}
+
+	/**
+	 * Get the number of coordinates per parallel chunk
+	 *
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super double[]> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException();
+		}
+		boolean subscribed;
+		synchronized (this) {
+			subscribed = downstream == null;
+			if (subscribed) {
+				downstream = subscriber;
+			}
+		}
+		if (!subscribed) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException(
+					"Projection processor supports a single subscriber"));
+			return;
+		}
+
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				ProjectionProcessor.this.request(n);
+			}
+
+			@Override
+			public void cancel() {
+				ProjectionProcessor.this.cancel();
+			}
+		});
+
+		synchronized (this) {
+			this.subscribed = true;
+		}
+		drain();
+	}
+
+	/**
+	 * Request downstream demand from upstream
+	 *
+	 * @param n
+	 *            number of batches
+	 */
+	private void request(long n) {
+		if (done) {
+			return;
+		}
+		if (n <= 0) {
+			cancel();
+			terminate(new IllegalArgumentException(
+					"Requested batches must be positive, requested: " + n));
+			return;
+		}
+		Flow.Subscription subscription;
+		synchronized (this) {
+			subscription = upstream;
+			if (subscription == null) {
+				pending = add(pending, n);
+			}
+		}
+		if (subscription != null) {
+			subscription.request(n);
+		}
+	}
+
+	/**
+	 * Cancel the upstream subscription
+	 */
+	private void cancel() {
+		done = true;
+		Flow.Subscription subscription;
+		synchronized (this) {
+			subscription = upstream;
+		}
+		if (subscription != null) {
+			subscription.cancel();
+		}
+	}
+
+	/**
+	 * Add demand, capping at unbounded
+	 *
+	 * @param demand
+	 *            current demand
+	 * @param n
+	 *            additional demand
+	 * @return demand
+	 */
+	private static long add(long demand, long n) {
+		long total = demand + n;
+		if (total < 0) {
+			total = Long.MAX_VALUE;
+		}
+		return total;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		long demand;
+		synchronized (this) {
+			if (upstream != null) {
+				subscription.cancel();
+				return;
+			}
+			upstream = subscription;
+			demand = pending;
+			pending = 0;
+		}
+		if (done) {
+			subscription.cancel();
+		} else if (demand > 0) {
+			subscription.request(demand);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The received batch is not modified.
+	 */
+	@Override
+	public void onNext(double[] batch) {
+		if (done) {
+			return;
+		}
+		double[] transformed;
+		try {
+			transformed = transform(batch);
+		} catch (CompletionException e) {
+			cancel();
+			terminate(e.getCause() != null ? e.getCause() : e);
+			return;
+		} catch (RuntimeException e) {
+			cancel();
+			terminate(e);
+			return;
+		}
+		// Batches are dropped while a concurrent terminal signal is emitting
+		if (emitting.getAndIncrement() == 0) {
+			if (!done) {
+				downstream.onNext(transformed);
+			}
+			while (emitting.decrementAndGet() != 0) {
+				signalTerminal();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onError(Throwable throwable) {
+		if (done) {
+			return;
+		}
+		terminate(throwable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onComplete() {
+		if (done) {
+			return;
+		}
+		terminate(null);
+	}
+
+	/**
+	 * Record the first terminal signal and deliver it downstream once
+	 * subscribed
+	 *
+	 * @param throwable
+	 *            terminal error, or null to complete
+	 */
+	private void terminate(Throwable throwable) {
+		done = true;
+		synchronized (this) {
+			if (error != null || completed) {
+				return;
+			}
+			if (throwable != null) {
+				error = throwable;
+			} else {
+				completed = true;
+			}
+		}
+		drain();
+	}
+
+	/**
+	 * Deliver the terminal signal unless another thread is emitting, in
+	 * which case that thread delivers it when done
+	 */
+	private void drain() {
+		if (emitting.getAndIncrement() == 0) {
+			do {
+				signalTerminal();
+			} while (emitting.decrementAndGet() != 0);
+		}
+	}
+
+	/**
+	 * Signal the recorded terminal downstream once, while emitting
+	 */
+	private void signalTerminal() {
+		Flow.Subscriber<? super double[]> subscriber;
+		Throwable terminalError;
+		boolean terminalComplete;
+		synchronized (this) {
+			subscriber = subscribed ? downstream : null;
+			terminalError = error;
+			terminalComplete = completed;
+		}
+		if (subscriber != null && !terminated
+				&& (terminalError != null || terminalComplete)) {
+			terminated = true;
+			if (terminalError != null) {
+				subscriber.onError(terminalError);
+			} else {
+				subscriber.onComplete();
+			}
+		}
+	}
+
+	/**
+	 * Transform the batch of coordinates, dividing into chunks across the
+	 * parallel workers
+	 *
+	 * @param batch
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @return transformed coordinates
+	 */
+	private double[] transform(double[] batch) {
+
+		if (batch.length % dimension != 0) {
+			throw new IllegalArgumentException(
+					"Batch length is not a multiple of the dimension. length: "
+							+ batch.length + ", dimension: " + dimension);
+		}
+
+		double[] transformed = new double[batch.length];
+		int count = batch.length / dimension;
+		int chunks = (count + batchSize - 1) / batchSize;
+		int workers = Math.min(transforms.length, chunks);
+
+		if (workers <= 1) {
+			transforms[0].transform(batch, 0, transformed, 0, dimension,
+					count);
+		} else {
+			@SuppressWarnings("unchecked")
+			CompletableFuture<Void>[] futures = new CompletableFuture[workers
+					- 1];
+			for (int worker = 1; worker < workers; worker++) {
+				if (transforms[worker] == null) {
+					transforms[worker] = new ProjectionTransform(transforms[0]);
+				}
+				int index = worker;
+				futures[worker - 1] = CompletableFuture.runAsync(
+						() -> transformChunks(index, workers, batch,
+								transformed, count),
+						executor);
+			}
+			transformChunks(0, workers, batch, transformed, count);
+			CompletableFuture.allOf(futures).join();
+		}
+
+		return transformed;
+	}
+
+	/**
+	 * Transform every worker chunk of the batch
+	 *
+	 * @param worker
+	 *            worker index
+	 * @param workers
+	 *            number of workers
+	 * @param batch
+	 *            coordinates
+	 * @param transformed
+	 *            transformed coordinates
+	 * @param count
+	 *            number of coordinates
+	 */
+	private void transformChunks(int worker, int workers, double[] batch,
+			double[] transformed, int count) {
+		ProjectionTransform transform = transforms[worker];
+		for (int start = worker * batchSize; start < count; start += workers
+				* batchSize) {
+			int offset = start * dimension;
+			transform.transform(batch, offset, transformed, offset, dimension,
+					Math.min(batchSize, count - start));
+		}
+	}
+
+}
@@ -1,13 +1,15 @@
 package mil.nga.proj;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,7 +40,13 @@ public class ProjectionRetriever {
 	/**
 	 * Properties for each authority
 	 */
-	private static final Map<String, Properties> properties = new HashMap<>();
+	private static final Map<String, Properties> properties = new ConcurrentHashMap<>();
+
+	/**
+	 * In progress authority property loads, shared by concurrent requests for
+	 * the same authority
+	 */
+	private static final Map<String, CompletableFuture<Properties>> loading = new ConcurrentHashMap<>();
 
 	/**
 	 * Get the proj4 projection string for the EPSG coordinate code
@@ -83,7 +91,8 @@ public class ProjectionRetriever {
 	}
 
 	/**
-	 * Get or create the projection properties
+	 * Get or create the projection properties. Concurrent first requests for
+	 * an authority share a single load.
 	 * 
 	 * @param authority
 	 *            coordinate authority
@@ -95,13 +104,49 @@ public class ProjectionRetriever {
 
 		Properties authorityProperties = properties.get(authorityKey);
 		if (authorityProperties == null) {
-			loadProperties(authorityKey);
-			authorityProperties = properties.get(authorityKey);
+			authorityProperties = loadOnce(authorityKey);
 		}
 
 		return authorityProperties;
 	}
 
+	/**
+	 * Load the authority projection properties once, with concurrent callers
+	 * for the same authority waiting on the single load
+	 * 
+	 * @param authority
+	 *            coordinate authority key
+	 * @return projection properties
+	 */
+	private static Properties loadOnce(String authority) {
+
+		CompletableFuture<Properties> load = new CompletableFuture<>();
+		CompletableFuture<Properties> existing = loading
+				.putIfAbsent(authority, load);
+		if (existing != null) {
+			return existing.join();
+		}
+
+		try {
+			Properties authorityProperties = properties.get(authority);
+			if (authorityProperties == null) {
+				authorityProperties = loadProperties(authority);
+				Properties current = properties.putIfAbsent(authority,
+						authorityProperties);
+				if (current != null) {
+					authorityProperties = current;
+				}
+			}
+			load.complete(authorityProperties);
+			return authorityProperties;
+		} catch (RuntimeException | Error e) {
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(authority, load);
+		}
+	}
+
 	/**
 	 * Get the projection properties for the authority
 	 * 
@@ -118,6 +163,7 @@ public class ProjectionRetriever {
 	 */
 	public static void clear() {
 		properties.clear();
+		ProjectionCatalog.clear();
 	}
 
 	/**
@@ -128,6 +174,7 @@ public class ProjectionRetriever {
 	 */
 	public static void clear(String authority) {
 		properties.remove(authority.toLowerCase());
+		ProjectionCatalog.clear(authority);
 	}
 
 	/**
@@ -154,6 +201,7 @@ public class ProjectionRetriever {
 		Properties properties = getProjections(authority);
 		if (properties != null) {
 			properties.remove(code);
+			ProjectionCatalog.clear(authority);
 		}
 	}
 
@@ -163,14 +211,15 @@ public class ProjectionRetriever {
 	 * 
 	 * @param authority
 	 *            coordinate authority key
+	 * @return projection properties
 	 */
-	private static void loadProperties(String authority) {
+	private static Properties loadProperties(String authority) {
 
 		String authorityFile = propertyFileName(authority);
 		InputStream in = ProjectionRetriever.class
 				.getResourceAsStream("/" + authorityFile);
 
-		setProjections(authority, in);
+		return readProjections(authority, in);
 	}
 
 	/**
@@ -198,12 +247,31 @@ public class ProjectionRetriever {
 	 */
 	public static void setProjections(String authority,
 			InputStream propertiesStream) {
+		setProjections(authority,
+				readProjections(authority, propertiesStream));
+	}
+
+	/**
+	 * Read the projections for the authority from the properties input
+	 * stream
+	 * 
+	 * @param authority
+	 *            coordinate authority
+	 * @param propertiesStream
+	 *            properties input stream
+	 * @return projection properties
+	 */
+	private static Properties readProjections(String authority,
+			InputStream propertiesStream) {
 
 		Properties authorityProperties = new Properties();
 
 		if (propertiesStream != null) {
 			try {
-				authorityProperties.load(propertiesStream);
+				// Read before the synchronized properties load so no blocking
+				// I/O happens while holding the properties monitor
+				authorityProperties.load(new ByteArrayInputStream(
+						propertiesStream.readAllBytes()));
 			} catch (Exception e) {
 				log.log(Level.WARNING, "Failed to load authority: " + authority,
 						e);
@@ -219,7 +287,7 @@ public class ProjectionRetriever {
 			log.log(Level.WARNING, "Failed to load authority: " + authority);
 		}
 
-		setProjections(authority, authorityProperties);
+		return authorityProperties;
 	}
 
 	/**
@@ -233,6 +301,7 @@ public class ProjectionRetriever {
 	public static void setProjections(String authority,
 			Properties authorityProperties) {
 		properties.put(authority.toLowerCase(), authorityProperties);
+		ProjectionCatalog.clear(authority);
 	}
 
 	/**
@@ -282,6 +351,7 @@ public class ProjectionRetriever {
 			String projection) {
 		Properties authorityProperties = getOrCreateProjections(authority);
 		authorityProperties.setProperty(code, projection);
+		ProjectionCatalog.clear(authority);
 	}
 
 }
@@ -0,0 +1,235 @@
+package mil.nga.proj;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator lazily transforming blocks of interleaved coordinates. Each
+ * advance transforms the next block of the source coordinates into a new
+ * array, so large inputs stream through the transform with memory bounded by
+ * the block size. Splits divide the remaining blocks in half and each split
+ * receives its own copy of the projection transform, as the underlying proj4j
+ * transforms are not thread safe.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionSpliterator implements Spliterator<double[]> {
+
+	/**
+	 * Default number of coordinates per block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/**
+	 * Minimum number of blocks required to split
+	 */
+	private static final int MIN_SPLIT_BLOCKS = 2;
+
+	/**
+	 * Projection transform owned by this spliterator
+	 */
+	private final ProjectionTransform transform;
+
+	/**
+	 * Source coordinates as [x, y, ...] or [x, y, z, ...]
+	 */
+	private final double[] coordinates;
+
+	/**
+	 * Coordinate dimension
+	 */
+	private final int dimension;
+
+	/**
+	 * Number of coordinates per block
+	 */
+	private final int blockSize;
+
+	/**
+	 * Index of the next coordinate
+	 */
+	private int index;
+
+	/**
+	 * Index after the last coordinate
+	 */
+	private final int fence;
+
+	/**
+	 * Constructor
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 */
+	public ProjectionSpliterator(ProjectionTransform transform,
+			double[] coordinates, int dimension) {
+		this(transform, coordinates, dimension, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param blockSize
+	 *            number of coordinates per block
+	 */
+	public ProjectionSpliterator(ProjectionTransform transform,
+			double[] coordinates, int dimension, int blockSize) {
+		this(new ProjectionTransform(transform), coordinates, dimension,
+				blockSize, 0, coordinates.length / validate(dimension));
+		if (blockSize < 1) {
+			throw new IllegalArgumentException(
+					"Block size must be positive, block size: " + blockSize);
+		}
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transform
+	 *            projection transform owned by this spliterator
+	 * @param coordinates
+	 *            coordinates
+	 * @param dimension
+	 *            coordinate dimension
+	 * @param blockSize
+	 *            number of coordinates per block
+	 * @param index
+	 *            index of the first coordinate
+	 * @param fence
+	 *            index after the last coordinate
+	 */
+	private ProjectionSpliterator(ProjectionTransform transform,
+			double[] coordinates, int dimension, int blockSize, int index,
+			int fence) {
+		this.transform = transform;
+		this.coordinates = coordinates;
+		this.dimension = dimension;
+		this.blockSize = blockSize;
+		this.index = index;
+		this.fence = fence;
+	}
+
+	/**
+	 * Validate the coordinate dimension
+	 *
+	 * @param dimension
+	 *            coordinate dimension
+	 * @return dimension
+	 */
+	private static int validate(int dimension) {
+		ProjectionTransform.validateDimension(dimension);
+		return dimension;
+	}
+
+	/**
+	 * Get the coordinate dimension
+	 *
+	 * @return dimension
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Get the number of coordinates per block
+	 *
+	 * @return block size
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The block is a new array of transformed coordinates.
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super double[]> action) {
+		if (action == null) {
+			throw new NullPointerException();
+		}
+		boolean advanced = index < fence;
+		if (advanced) {
+			action.accept(nextBlock());
+		}
+		return advanced;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachRemaining(Consumer<? super double[]> action) {
+		if (action == null) {
+			throw new NullPointerException();
+		}
+		while (index < fence) {
+			action.accept(nextBlock());
+		}
+	}
+
+	/**
+	 * Transform the next block of coordinates
+	 *
+	 * @return transformed block
+	 */
+	private double[] nextBlock() {
+		int count = Math.min(blockSize, fence - index);
+		double[] block = new double[count * dimension];
+		transform.transform(coordinates, index * dimension, block, 0,
+				dimension, count);
+		index += count;
+		return block;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Splits on a block boundary. The returned spliterator transforms with a
+	 * new copy of the projection transform.
+	 */
+	@Override
+	public Spliterator<double[]> trySplit() {
+		ProjectionSpliterator split = null;
+		long blocks = estimateSize();
+		if (blocks >= MIN_SPLIT_BLOCKS) {
+			int mid = index + (int) (blocks / 2) * blockSize;
+			split = new ProjectionSpliterator(
+					new ProjectionTransform(transform), coordinates, dimension,
+					blockSize, index, mid);
+			index = mid;
+		}
+		return split;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The size is the number of remaining blocks.
+	 */
+	@Override
+	public long estimateSize() {
+		return ((long) fence - index + blockSize - 1) / blockSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+	}
+
+}
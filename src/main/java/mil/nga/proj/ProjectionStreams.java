@@ -0,0 +1,145 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.locationtech.proj4j.ProjCoordinate;
+
+/**
+ * Lazy stream integration for projection transforms. Map stages transform
+ * coordinates as they are pulled through a stream and block streams split
+ * primitive coordinate arrays for parallel transformation. Parallel use is
+ * safe as each thread or split transforms with its own copy of the
+ * projection transform.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionStreams {
+
+	/**
+	 * Create a map stage transforming coordinates as [x, y] or [x, y, z] into
+	 * new arrays. Three dimensional z values are transformed as ellipsoidal
+	 * heights.
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @return coordinate map function
+	 */
+	public static UnaryOperator<double[]> map(ProjectionTransform transform) {
+		ThreadLocal<ProjectionTransform> transforms = threadTransforms(
+				transform);
+		return (coordinate) -> {
+			double[] transformed = new double[coordinate.length];
+			transforms.get().transform(coordinate, 0, transformed, 0,
+					coordinate.length, 1);
+			return transformed;
+		};
+	}
+
+	/**
+	 * Create a map stage transforming projected coordinates into new
+	 * coordinates
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @return projected coordinate map function
+	 */
+	public static UnaryOperator<ProjCoordinate> mapCoordinates(
+			ProjectionTransform transform) {
+		ThreadLocal<ProjectionTransform> transforms = threadTransforms(
+				transform);
+		return (coordinate) -> transforms.get().transform(coordinate);
+	}
+
+	/**
+	 * Lazily transform a stream of coordinates as [x, y] or [x, y, z]
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates stream
+	 * @return transformed coordinates stream
+	 */
+	public static Stream<double[]> transform(ProjectionTransform transform,
+			Stream<double[]> coordinates) {
+		return coordinates.map(map(transform));
+	}
+
+	/**
+	 * Create a lazy stream of transformed coordinate blocks
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param parallel
+	 *            true for a parallel stream
+	 * @return transformed coordinate blocks stream
+	 */
+	public static Stream<double[]> blocks(ProjectionTransform transform,
+			double[] coordinates, int dimension, boolean parallel) {
+		return blocks(transform, coordinates, dimension,
+				ProjectionSpliterator.DEFAULT_BLOCK_SIZE, parallel);
+	}
+
+	/**
+	 * Create a lazy stream of transformed coordinate blocks
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param blockSize
+	 *            number of coordinates per block
+	 * @param parallel
+	 *            true for a parallel stream
+	 * @return transformed coordinate blocks stream
+	 */
+	public static Stream<double[]> blocks(ProjectionTransform transform,
+			double[] coordinates, int dimension, int blockSize,
+			boolean parallel) {
+		return StreamSupport.stream(new ProjectionSpliterator(transform,
+				coordinates, dimension, blockSize), parallel);
+	}
+
+	/**
+	 * Create a lazy stream of transformed interleaved coordinate values
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param parallel
+	 *            true for a parallel stream
+	 * @return transformed coordinate values stream
+	 */
+	public static DoubleStream stream(ProjectionTransform transform,
+			double[] coordinates, int dimension, boolean parallel) {
+		return blocks(transform, coordinates, dimension, parallel)
+				.flatMapToDouble(Arrays::stream);
+	}
+
+	/**
+	 * Create per thread copies of the projection transform
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @return thread local transforms
+	 */
+	private static ThreadLocal<ProjectionTransform> threadTransforms(
+			ProjectionTransform transform) {
+		return ThreadLocal
+				.withInitial(() -> new ProjectionTransform(transform));
+	}
+
+}
@@ -0,0 +1,503 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.locationtech.proj4j.ProjCoordinate;
+
+/**
+ * Bulk tile operations for projection transforms over tile matrices. Tile
+ * matrices have a top left origin with columns increasing in x and rows
+ * increasing downward in y. Tile space coordinates are quantized integers
+ * within a tile extent, with y increasing downward.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionTiles {
+
+	/**
+	 * Minimum number of corner grid rows transformed per parallel chunk
+	 */
+	private static final int MIN_PARALLEL_ROWS = 8;
+
+	/**
+	 * Get the number of tiles in the tile matrix zoom range, where each zoom
+	 * level doubles the column and row ranges of the previous
+	 *
+	 * @param minZoom
+	 *            min zoom level
+	 * @param maxZoom
+	 *            max zoom level
+	 * @param minColumn
+	 *            min tile column at the min zoom
+	 * @param maxColumn
+	 *            max tile column at the min zoom
+	 * @param minRow
+	 *            min tile row at the min zoom
+	 * @param maxRow
+	 *            max tile row at the min zoom
+	 * @return tile count
+	 * @throws IllegalArgumentException
+	 *             if the ranges are invalid or the tile count overflows a long
+	 */
+	public static long tileCount(int minZoom, int maxZoom, long minColumn,
+			long maxColumn, long minRow, long maxRow) {
+		validateRanges(minZoom, maxZoom, minColumn, maxColumn, minRow, maxRow);
+		long count = 0;
+		try {
+			long columns = Math.addExact(maxColumn - minColumn, 1);
+			long rows = Math.addExact(maxRow - minRow, 1);
+			for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+				long factor = 1L << (zoom - minZoom);
+				count = Math.addExact(count,
+						Math.multiplyExact(Math.multiplyExact(columns, factor),
+								Math.multiplyExact(rows, factor)));
+			}
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(
+					"Tile count overflow, zoom: [" + minZoom + ", " + maxZoom
+							+ "], columns: [" + minColumn + ", " + maxColumn
+							+ "], rows: [" + minRow + ", " + maxRow + "]",
+					e);
+		}
+		return count;
+	}
+
+	/**
+	 * Transform the bounds of each tile in the tile matrix. Each tile corner
+	 * grid point is transformed once and shared by the neighboring tiles.
+	 *
+	 * @param transform
+	 *            projection transform from the tile matrix projection
+	 * @param originX
+	 *            tile matrix origin (top left) x
+	 * @param originY
+	 *            tile matrix origin (top left) y
+	 * @param tileWidth
+	 *            tile width in tile matrix projection units
+	 * @param tileHeight
+	 *            tile height in tile matrix projection units
+	 * @param minColumn
+	 *            min tile column
+	 * @param maxColumn
+	 *            max tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param maxRow
+	 *            max tile row
+	 * @return packed tile bounds ordered by row then column, as [min x, min y,
+	 *         max x, max y, ...]
+	 */
+	public static double[] tileBounds(ProjectionTransform transform,
+			double originX, double originY, double tileWidth,
+			double tileHeight, long minColumn, long maxColumn, long minRow,
+			long maxRow) {
+		return tileBounds(transform, originX, originY, tileWidth, tileHeight,
+				minColumn, maxColumn, minRow, maxRow, false);
+	}
+
+	/**
+	 * Transform the bounds of each tile in the tile matrix. Each tile corner
+	 * grid point is transformed once and shared by the neighboring tiles.
+	 *
+	 * @param transform
+	 *            projection transform from the tile matrix projection
+	 * @param originX
+	 *            tile matrix origin (top left) x
+	 * @param originY
+	 *            tile matrix origin (top left) y
+	 * @param tileWidth
+	 *            tile width in tile matrix projection units
+	 * @param tileHeight
+	 *            tile height in tile matrix projection units
+	 * @param minColumn
+	 *            min tile column
+	 * @param maxColumn
+	 *            max tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param maxRow
+	 *            max tile row
+	 * @param parallel
+	 *            true to transform in parallel on the
+	 *            {@link ProjectionExecutors} executor
+	 * @return packed tile bounds ordered by row then column, as [min x, min y,
+	 *         max x, max y, ...]
+	 */
+	public static double[] tileBounds(ProjectionTransform transform,
+			double originX, double originY, double tileWidth,
+			double tileHeight, long minColumn, long maxColumn, long minRow,
+			long maxRow, boolean parallel) {
+		return tileBounds(transform, originX, originY, tileWidth, tileHeight,
+				0, 0, minColumn, maxColumn, minRow, maxRow, parallel);
+	}
+
+	/**
+	 * Transform the bounds of each tile in the tile matrix zoom range. Each
+	 * zoom level halves the tile width and height and doubles the column and
+	 * row ranges of the previous. Each tile corner grid point of a zoom level
+	 * is transformed once and shared by the neighboring tiles.
+	 *
+	 * @param transform
+	 *            projection transform from the tile matrix projection
+	 * @param originX
+	 *            tile matrix origin (top left) x
+	 * @param originY
+	 *            tile matrix origin (top left) y
+	 * @param tileWidth
+	 *            tile width at the min zoom in tile matrix projection units
+	 * @param tileHeight
+	 *            tile height at the min zoom in tile matrix projection units
+	 * @param minZoom
+	 *            min zoom level
+	 * @param maxZoom
+	 *            max zoom level
+	 * @param minColumn
+	 *            min tile column at the min zoom
+	 * @param maxColumn
+	 *            max tile column at the min zoom
+	 * @param minRow
+	 *            min tile row at the min zoom
+	 * @param maxRow
+	 *            max tile row at the min zoom
+	 * @param parallel
+	 *            true to transform in parallel on the
+	 *            {@link ProjectionExecutors} executor
+	 * @return packed tile bounds ordered by zoom, row, then column, as [min x,
+	 *         min y, max x, max y, ...]
+	 */
+	public static double[] tileBounds(ProjectionTransform transform,
+			double originX, double originY, double tileWidth,
+			double tileHeight, int minZoom, int maxZoom, long minColumn,
+			long maxColumn, long minRow, long maxRow, boolean parallel) {
+
+		long count = tileCount(minZoom, maxZoom, minColumn, maxColumn, minRow,
+				maxRow);
+		if (count > (Integer.MAX_VALUE - 8) / 4) {
+			throw new IllegalArgumentException(
+					"Too many tiles for packed bounds: " + count);
+		}
+
+		double[] bounds = new double[(int) count * 4];
+
+		int offset = 0;
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			long factor = 1L << (zoom - minZoom);
+			long zoomMinColumn = minColumn * factor;
+			long zoomMinRow = minRow * factor;
+			int columns = (int) ((maxColumn - minColumn + 1) * factor);
+			int rows = (int) ((maxRow - minRow + 1) * factor);
+			levelBounds(transform, originX, originY, tileWidth / factor,
+					tileHeight / factor, zoomMinColumn, zoomMinRow, columns,
+					rows, parallel, bounds, offset);
+			offset += columns * rows * 4;
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Transform the bounds of each tile in a single tile matrix level
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param originX
+	 *            tile matrix origin x
+	 * @param originY
+	 *            tile matrix origin y
+	 * @param tileWidth
+	 *            tile width
+	 * @param tileHeight
+	 *            tile height
+	 * @param minColumn
+	 *            min tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param columns
+	 *            number of columns
+	 * @param rows
+	 *            number of rows
+	 * @param parallel
+	 *            true to transform in parallel on the
+	 *            {@link ProjectionExecutors} executor
+	 * @param bounds
+	 *            packed bounds to populate
+	 * @param offset
+	 *            packed bounds offset
+	 */
+	private static void levelBounds(ProjectionTransform transform,
+			double originX, double originY, double tileWidth,
+			double tileHeight, long minColumn, long minRow, int columns,
+			int rows, boolean parallel, double[] bounds, int offset) {
+
+		int gridColumns = columns + 1;
+		int gridRows = rows + 1;
+		double[] grid = new double[gridColumns * gridRows * 2];
+		for (int row = 0; row < gridRows; row++) {
+			double y = originY - (minRow + row) * tileHeight;
+			int index = row * gridColumns * 2;
+			for (int column = 0; column < gridColumns; column++) {
+				grid[index++] = originX + (minColumn + column) * tileWidth;
+				grid[index++] = y;
+			}
+		}
+
+		int chunks = parallel
+				? Math.min(Runtime.getRuntime().availableProcessors(),
+						gridRows / MIN_PARALLEL_ROWS)
+				: 1;
+		if (chunks > 1) {
+			int chunkRows = (gridRows + chunks - 1) / chunks;
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				int startRow = chunk * chunkRows;
+				int endRow = Math.min(gridRows, startRow + chunkRows);
+				futures[chunk] = CompletableFuture.runAsync(() -> {
+					if (startRow < endRow) {
+						int start = startRow * gridColumns * 2;
+						new ProjectionTransform(transform).transform(grid,
+								start, grid, start, 2,
+								(endRow - startRow) * gridColumns);
+					}
+				}, ProjectionExecutors.getExecutor());
+			}
+			try {
+				CompletableFuture.allOf(futures).join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		} else {
+			transform.transform(grid, 0, grid, 0, 2, gridColumns * gridRows);
+		}
+
+		int index = offset;
+		for (int row = 0; row < rows; row++) {
+			int upper = row * gridColumns * 2;
+			int lower = upper + gridColumns * 2;
+			for (int column = 0; column < columns; column++) {
+				int left = column * 2;
+				int right = left + 2;
+				ProjectionTransform.bounds(grid, lower + left, lower + right,
+						upper + right, upper + left, bounds, index);
+				index += 4;
+			}
+		}
+
+	}
+
+	/**
+	 * Transform coordinates and quantize into integer tile space in a single
+	 * pass
+	 *
+	 * @param transform
+	 *            projection transform to the tile projection
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @param minX
+	 *            tile envelope min x in the tile projection
+	 * @param minY
+	 *            tile envelope min y in the tile projection
+	 * @param maxX
+	 *            tile envelope max x in the tile projection
+	 * @param maxY
+	 *            tile envelope max y in the tile projection
+	 * @param extent
+	 *            tile extent, such as 4096
+	 * @param dropDuplicates
+	 *            true to drop consecutive duplicate quantized coordinates
+	 * @return tile coordinates as [x, y, ...]
+	 */
+	public static int[] quantize(ProjectionTransform transform,
+			double[] coordinates, double minX, double minY, double maxX,
+			double maxY, int extent, boolean dropDuplicates) {
+		int[] tile = new int[coordinates.length - coordinates.length % 2];
+		int count = quantize(transform, coordinates, 0, coordinates.length / 2,
+				minX, minY, maxX, maxY, extent, dropDuplicates, tile, 0);
+		if (count * 2 < tile.length) {
+			tile = Arrays.copyOf(tile, count * 2);
+		}
+		return tile;
+	}
+
+	/**
+	 * Transform coordinates and quantize into integer tile space in a single
+	 * pass, without intermediate coordinate arrays. Quantized coordinates
+	 * saturate at the int range, and coordinates that fail to transform are
+	 * dropped.
+	 *
+	 * @param transform
+	 *            projection transform to the tile projection
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of source coordinates
+	 * @param minX
+	 *            tile envelope min x in the tile projection
+	 * @param minY
+	 *            tile envelope min y in the tile projection
+	 * @param maxX
+	 *            tile envelope max x in the tile projection
+	 * @param maxY
+	 *            tile envelope max y in the tile projection
+	 * @param extent
+	 *            tile extent, such as 4096
+	 * @param dropDuplicates
+	 *            true to drop consecutive duplicate quantized coordinates
+	 * @param dst
+	 *            destination tile coordinates as [x, y, ...]
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @return number of tile coordinates written
+	 */
+	public static int quantize(ProjectionTransform transform, double[] src,
+			int srcOffset, int count, double minX, double minY, double maxX,
+			double maxY, int extent, boolean dropDuplicates, int[] dst,
+			int dstOffset) {
+		return quantize(transform, src, srcOffset, count, minX, minY, maxX,
+				maxY, extent, Integer.MAX_VALUE, dropDuplicates, dst,
+				dstOffset, null);
+	}
+
+	/**
+	 * Transform coordinates and quantize into integer tile space in a single
+	 * pass, without intermediate coordinate arrays. Quantized coordinates
+	 * saturate at the tile extent plus the buffer on each side, [-buffer,
+	 * extent + buffer] limited to the int range. Coordinates that fail to
+	 * transform, throwing or producing non-finite values, are dropped and
+	 * their source coordinate bits set in the failure mask, coordinate i as
+	 * bit (i % 64) of word (i / 64).
+	 *
+	 * @param transform
+	 *            projection transform to the tile projection
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param count
+	 *            number of source coordinates
+	 * @param minX
+	 *            tile envelope min x in the tile projection
+	 * @param minY
+	 *            tile envelope min y in the tile projection
+	 * @param maxX
+	 *            tile envelope max x in the tile projection
+	 * @param maxY
+	 *            tile envelope max y in the tile projection
+	 * @param extent
+	 *            tile extent, such as 4096
+	 * @param buffer
+	 *            tile buffer beyond the extent to saturate at, such as 64
+	 * @param dropDuplicates
+	 *            true to drop consecutive duplicate quantized coordinates
+	 * @param dst
+	 *            destination tile coordinates as [x, y, ...]
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param failures
+	 *            failure mask of at least (count + 63) / 64 words, or null
+	 * @return number of tile coordinates written
+	 * @since 1.1.5
+	 */
+	public static int quantize(ProjectionTransform transform, double[] src,
+			int srcOffset, int count, double minX, double minY, double maxX,
+			double maxY, int extent, int buffer, boolean dropDuplicates,
+			int[] dst, int dstOffset, long[] failures) {
+
+		if (extent < 1) {
+			throw new IllegalArgumentException(
+					"Extent must be positive, extent: " + extent);
+		}
+		if (buffer < 0) {
+			throw new IllegalArgumentException(
+					"Buffer must not be negative, buffer: " + buffer);
+		}
+		if (maxX <= minX || maxY <= minY) {
+			throw new IllegalArgumentException(
+					"Invalid tile envelope, min x: " + minX + ", min y: "
+							+ minY + ", max x: " + maxX + ", max y: " + maxY);
+		}
+		if (failures != null && failures.length < (count + 63) / 64) {
+			throw new IllegalArgumentException(
+					"Failure mask too small for the coordinate count. words: "
+							+ failures.length + ", count: " + count);
+		}
+
+		double scaleX = extent / (maxX - minX);
+		double scaleY = extent / (maxY - minY);
+		double low = -(double) buffer;
+		double high = Math.min(Integer.MAX_VALUE, (double) extent + buffer);
+
+		ProjCoordinate from = new ProjCoordinate();
+		ProjCoordinate to = new ProjCoordinate();
+
+		int index = dstOffset;
+		for (int i = 0; i < count; i++) {
+			int srcIndex = srcOffset + i * 2;
+			from.setValue(src[srcIndex], src[srcIndex + 1]);
+			boolean transformed;
+			try {
+				transform.transform(from, to);
+				transformed = Double.isFinite(to.x) && Double.isFinite(to.y);
+			} catch (RuntimeException e) {
+				transformed = false;
+			}
+			if (!transformed) {
+				if (failures != null) {
+					failures[i >>> 6] |= 1L << i;
+				}
+				continue;
+			}
+			int x = (int) Math.max(low,
+					Math.min(high, Math.floor((to.x - minX) * scaleX + 0.5)));
+			int y = (int) Math.max(low,
+					Math.min(high, Math.floor((maxY - to.y) * scaleY + 0.5)));
+			if (!dropDuplicates || index == dstOffset || x != dst[index - 2]
+					|| y != dst[index - 1]) {
+				dst[index++] = x;
+				dst[index++] = y;
+			}
+		}
+
+		return (index - dstOffset) / 2;
+	}
+
+	/**
+	 * Validate the zoom, column, and row ranges
+	 *
+	 * @param minZoom
+	 *            min zoom level
+	 * @param maxZoom
+	 *            max zoom level
+	 * @param minColumn
+	 *            min tile column
+	 * @param maxColumn
+	 *            max tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param maxRow
+	 *            max tile row
+	 */
+	private static void validateRanges(int minZoom, int maxZoom,
+			long minColumn, long maxColumn, long minRow, long maxRow) {
+		if (minZoom < 0 || maxZoom < minZoom || maxZoom - minZoom > 30) {
+			throw new IllegalArgumentException("Invalid zoom range, min: "
+					+ minZoom + ", max: " + maxZoom);
+		}
+		if (minColumn < 0 || maxColumn < minColumn) {
+			throw new IllegalArgumentException("Invalid column range, min: "
+					+ minColumn + ", max: " + maxColumn);
+		}
+		if (minRow < 0 || maxRow < minRow) {
+			throw new IllegalArgumentException("Invalid row range, min: "
+					+ minRow + ", max: " + maxRow);
+		}
+	}
+
+}
@@ -1,8 +1,14 @@
 package mil.nga.proj;
 
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.BitSet;
+
 import org.locationtech.proj4j.CoordinateTransform;
 import org.locationtech.proj4j.CoordinateTransformFactory;
 import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.proj.MercatorProjection;
+import org.locationtech.proj4j.units.Units;
 
 /**
  * Projection transform wrapper
@@ -31,6 +37,26 @@ public class ProjectionTransform {
 	 */
 	protected final CoordinateTransform transform;
 
+	/**
+	 * Height preserving coordinate transform
+	 */
+	protected final CoordinateTransform heightTransform;
+
+	/**
+	 * Identity transform between equivalent projections
+	 */
+	protected final boolean identity;
+
+	/**
+	 * Bulk two dimensional transform kernel, null when not supported
+	 */
+	private final TransformKernel kernel;
+
+	/**
+	 * Lazily created inverse transform, sharing this transform as its inverse
+	 */
+	private volatile ProjectionTransform inverse;
+
 	/**
 	 * Create a projection transform
 	 * 
@@ -221,20 +247,59 @@ public class ProjectionTransform {
 	 */
 	public ProjectionTransform(Projection fromProjection,
 			Projection toProjection) {
-		this.fromProjection = fromProjection;
-		this.toProjection = toProjection;
-		this.transform = ctFactory.createTransform(fromProjection.getCrs(),
-				toProjection.getCrs());
+		this(fromProjection, toProjection, ProjectionFactory
+				.getTransformTemplate(fromProjection, toProjection));
 	}
 
 	/**
-	 * Copy Constructor
+	 * Copy Constructor, sharing the thread safe height transform and kernel
+	 * with a new coordinate transform
 	 * 
 	 * @param transform
 	 *            projection transform
 	 */
 	public ProjectionTransform(ProjectionTransform transform) {
-		this(transform.getFromProjection(), transform.getToProjection());
+		this(transform.getFromProjection(), transform.getToProjection(),
+				transform);
+	}
+
+	/**
+	 * Constructor, sharing the thread safe height transform and kernel of the
+	 * template transform between equivalent projections
+	 * 
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @param template
+	 *            template transform, null to create all transform state
+	 */
+	ProjectionTransform(Projection fromProjection, Projection toProjection,
+			ProjectionTransform template) {
+		TransformCreationEvent event = new TransformCreationEvent();
+		event.begin();
+		this.fromProjection = fromProjection;
+		this.toProjection = toProjection;
+		this.transform = ctFactory.createTransform(fromProjection.getCrs(),
+				toProjection.getCrs());
+		if (template != null) {
+			this.heightTransform = template.heightTransform;
+			this.identity = template.identity;
+			this.kernel = template.kernel;
+		} else {
+			this.heightTransform = new HeightTransform(
+					fromProjection.getCrs(), toProjection.getCrs());
+			this.identity = fromProjection.isEquivalent(toProjection);
+			this.kernel = identity ? null : TransformKernel.create(this);
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.from = fromProjection.toString();
+			event.to = toProjection.toString();
+			event.identity = identity;
+			event.kernel = kernel != null;
+			event.commit();
+		}
 	}
 
 	/**
@@ -246,7 +311,29 @@ public class ProjectionTransform {
 	 */
 	public ProjCoordinate transform(ProjCoordinate from) {
 		ProjCoordinate to = new ProjCoordinate();
-		transform.transform(from, to);
+		transform(from, to);
+		return to;
+	}
+
+	/**
+	 * Transform the projected coordinate into the provided coordinate. A from
+	 * coordinate with a valid z value is transformed as an ellipsoidal height.
+	 * 
+	 * @param from
+	 *            from coordinate
+	 * @param to
+	 *            to coordinate
+	 * @return to coordinate
+	 * @since 1.1.5
+	 */
+	public ProjCoordinate transform(ProjCoordinate from, ProjCoordinate to) {
+		if (identity) {
+			to.setValue(from);
+		} else if (from.hasValidZOrdinate()) {
+			heightTransform.transform(from, to);
+		} else {
+			transform.transform(from, to);
+		}
 		return to;
 	}
 
@@ -265,6 +352,730 @@ public class ProjectionTransform {
 		return new double[] { toCoord.x, toCoord.y };
 	}
 
+	/**
+	 * Transform a x, y, and z location, where z is an ellipsoidal height
+	 * 
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @param z
+	 *            z coordinate
+	 * @return transformed coordinates as [x, y, z]
+	 * @since 1.1.5
+	 */
+	public double[] transform(double x, double y, double z) {
+		ProjCoordinate fromCoord = new ProjCoordinate(x, y, z);
+		ProjCoordinate toCoord = transform(fromCoord);
+		return new double[] { toCoord.x, toCoord.y, toCoord.z };
+	}
+
+	/**
+	 * Transform the interleaved coordinates
+	 * 
+	 * @param coordinates
+	 *            coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @return transformed coordinates
+	 * @since 1.1.5
+	 */
+	public double[] transform(double[] coordinates, int dimension) {
+		validateDimension(dimension);
+		double[] transformed = new double[coordinates.length];
+		transform(coordinates, 0, transformed, 0, dimension,
+				coordinates.length / dimension);
+		return transformed;
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array. The source and destination may be the same array with
+	 * the same offset to transform in place. Three dimensional z values are
+	 * transformed as ellipsoidal heights, including through datum shifts. Two
+	 * dimensional transforms between geographic degrees and spherical Mercator
+	 * or Plate Carree projections run as bulk kernels, vectorized on Java 17+
+	 * when the jdk.incubator.vector module is added.
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 * @since 1.1.5
+	 */
+	public void transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count) {
+		validateDimension(dimension);
+
+		BulkTransformEvent event = new BulkTransformEvent();
+		event.begin();
+		transformBatch(src, srcOffset, dst, dstOffset, dimension, count);
+		commit(event, dimension, count);
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array, handling coordinates that fail to transform with the
+	 * failure mode instead of aborting the batch. Coordinates fail when the
+	 * transform throws or produces non-finite values.
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 * @param mode
+	 *            failure mode
+	 * @return failed coordinate indices, empty if none failed
+	 * @since 1.1.5
+	 */
+	public BitSet transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count,
+			TransformFailureMode mode) {
+		long[] failures = new long[(count + 63) / 64];
+		transform(src, srcOffset, dst, dstOffset, dimension, count, mode,
+				failures);
+		return BitSet.valueOf(failures);
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array, handling coordinates that fail to transform with the
+	 * failure mode instead of aborting the batch. Coordinates fail when the
+	 * transform throws or produces non-finite values, or when a longitude
+	 * latitude source latitude is beyond the target limits, including the Web
+	 * Mercator latitude limits for Mercator targets. The bit of each failed
+	 * coordinate index is set in the failure mask, coordinate i as bit
+	 * (i % 64) of word (i / 64), compatible with {@link BitSet#valueOf(long[])}.
+	 * Successful coordinate bits are left unchanged.
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 * @param mode
+	 *            failure mode
+	 * @param failures
+	 *            failure mask of at least (count + 63) / 64 words, or null to
+	 *            only count failures
+	 * @return number of failed coordinates
+	 * @since 1.1.5
+	 */
+	public int transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count,
+			TransformFailureMode mode, long[] failures) {
+		validateDimension(dimension);
+		if (failures != null && failures.length < (count + 63) / 64) {
+			throw new IllegalArgumentException(
+					"Failure mask too small for the coordinate count. words: "
+							+ failures.length + ", count: " + count);
+		}
+
+		if (mode == TransformFailureMode.THROW) {
+			transform(src, srcOffset, dst, dstOffset, dimension, count);
+			return 0;
+		}
+
+		BulkTransformEvent event = new BulkTransformEvent();
+		event.begin();
+
+		int failed;
+		boolean clamp = mode == TransformFailureMode.CLAMP;
+		double[] latitudeRange = identity ? null : getLatitudeRange();
+		if (identity || (dimension == 2 && kernel != null
+				&& (!clamp || src != dst))) {
+			// Find source latitudes beyond the limits before transforming,
+			// as the source may be the destination
+			long[] outside = null;
+			if (latitudeRange != null) {
+				for (int i = 0; i < count; i++) {
+					if (!inRange(latitudeRange,
+							src[srcOffset + i * dimension + 1])) {
+						if (outside == null) {
+							outside = new long[(count + 63) / 64];
+						}
+						outside[i >>> 6] |= 1L << i;
+					}
+				}
+			}
+			// Bulk transform, then check for non-finite results
+			transformBatch(src, srcOffset, dst, dstOffset, dimension, count);
+			failed = 0;
+			double[] clamped = null;
+			for (int i = 0; i < count; i++) {
+				int dstIndex = dstOffset + i * dimension;
+				if (!isFinite(dst, dstIndex, dimension) || (outside != null
+						&& (outside[i >>> 6] & (1L << i)) != 0)) {
+					boolean retried = false;
+					if (clamp && !identity) {
+						if (clamped == null) {
+							clamped = new double[2];
+						}
+						int srcIndex = srcOffset + i * 2;
+						clamped[0] = src[srcIndex];
+						clamped[1] = src[srcIndex + 1];
+						if (clamp(clamped)) {
+							kernel.transform(clamped, 0, dst, dstIndex, 1);
+							retried = isFinite(dst, dstIndex, dimension);
+						}
+					}
+					if (!retried) {
+						fail(dst, dstIndex, dimension, i, failures);
+						failed++;
+					}
+				}
+			}
+		} else {
+			failed = transformEach(src, srcOffset, dst, dstOffset, dimension,
+					count, clamp, latitudeRange, failures);
+		}
+
+		commit(event, dimension, count);
+
+		return failed;
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array, first applying the domain policy of the target
+	 * projection to longitude latitude source coordinates. Coordinates
+	 * outside of the domain are rejected, clamped, or wrapped by a comparison
+	 * before the transform. Rejected coordinates and coordinates that fail to
+	 * transform are written as NaN values.
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 * @param policy
+	 *            domain policy
+	 * @return failed coordinate indices, empty if none failed
+	 * @throws ProjectionException
+	 *             if the source projection is not in degrees
+	 * @since 1.1.5
+	 */
+	public BitSet transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count,
+			ProjectionDomainPolicy policy) {
+		long[] failures = new long[(count + 63) / 64];
+		transform(src, srcOffset, dst, dstOffset, dimension, count, policy,
+				failures);
+		return BitSet.valueOf(failures);
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array, first applying the domain policy of the target
+	 * projection to longitude latitude source coordinates. Coordinates
+	 * outside of the domain are rejected, clamped, or wrapped by a comparison
+	 * before the transform. Rejected coordinates and coordinates that fail to
+	 * transform are written as NaN values with their bits set in the failure
+	 * mask, as in
+	 * {@link #transform(double[], int, double[], int, int, int, TransformFailureMode, long[])}.
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 * @param policy
+	 *            domain policy
+	 * @param failures
+	 *            failure mask of at least (count + 63) / 64 words, or null to
+	 *            only count failures
+	 * @return number of failed coordinates
+	 * @throws ProjectionException
+	 *             if the source projection is not in degrees
+	 * @since 1.1.5
+	 */
+	public int transform(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count,
+			ProjectionDomainPolicy policy, long[] failures) {
+		validateDimension(dimension);
+		if (failures != null && failures.length < (count + 63) / 64) {
+			throw new IllegalArgumentException(
+					"Failure mask too small for the coordinate count. words: "
+							+ failures.length + ", count: " + count);
+		}
+
+		if (!fromProjection.isUnit(Units.DEGREES)) {
+			throw new ProjectionException(
+					"Domain policies require a longitude latitude degree "
+							+ "source projection: " + fromProjection);
+		}
+
+		toProjection.getDomain().apply(policy, src, srcOffset, dst, dstOffset,
+				dimension, count, failures);
+
+		return transform(dst, dstOffset, dst, dstOffset, dimension, count,
+				TransformFailureMode.NAN, failures);
+	}
+
+	/**
+	 * Transform each coordinate, catching failures
+	 * 
+	 * @param src
+	 *            source coordinates
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension
+	 * @param count
+	 *            number of coordinates
+	 * @param clamp
+	 *            true to retry failed coordinates clamped
+	 * @param latitudeRange
+	 *            source latitude range as [min, max], or null if not limited
+	 * @param failures
+	 *            failure mask or null
+	 * @return number of failed coordinates
+	 */
+	private int transformEach(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count, boolean clamp,
+			double[] latitudeRange, long[] failures) {
+
+		CoordinateTransform coordinateTransform = dimension == 3
+				? heightTransform
+				: transform;
+		ProjCoordinate from = new ProjCoordinate();
+		ProjCoordinate to = new ProjCoordinate();
+		double[] clamped = clamp ? new double[2] : null;
+
+		int failed = 0;
+		for (int i = 0; i < count; i++) {
+			int srcIndex = srcOffset + i * dimension;
+			int dstIndex = dstOffset + i * dimension;
+			if (dimension == 3) {
+				from.setValue(src[srcIndex], src[srcIndex + 1],
+						src[srcIndex + 2]);
+			} else {
+				from.setValue(src[srcIndex], src[srcIndex + 1]);
+			}
+			boolean success = (latitudeRange == null
+					|| inRange(latitudeRange, from.y))
+					&& transform(coordinateTransform, from, to, dimension);
+			if (!success && clamp) {
+				clamped[0] = from.x;
+				clamped[1] = from.y;
+				if (clamp(clamped)) {
+					from.x = clamped[0];
+					from.y = clamped[1];
+					success = transform(coordinateTransform, from, to,
+							dimension);
+				}
+			}
+			if (success) {
+				dst[dstIndex] = to.x;
+				dst[dstIndex + 1] = to.y;
+				if (dimension == 3) {
+					dst[dstIndex + 2] = to.z;
+				}
+			} else {
+				fail(dst, dstIndex, dimension, i, failures);
+				failed++;
+			}
+		}
+
+		return failed;
+	}
+
+	/**
+	 * Transform a coordinate, catching failures
+	 * 
+	 * @param coordinateTransform
+	 *            coordinate transform
+	 * @param from
+	 *            from coordinate
+	 * @param to
+	 *            to coordinate
+	 * @param dimension
+	 *            coordinate dimension
+	 * @return true if transformed to finite values
+	 */
+	private static boolean transform(CoordinateTransform coordinateTransform,
+			ProjCoordinate from, ProjCoordinate to, int dimension) {
+		boolean success;
+		try {
+			coordinateTransform.transform(from, to);
+			success = Double.isFinite(to.x) && Double.isFinite(to.y)
+					&& (dimension == 2 || Double.isFinite(to.z));
+		} catch (RuntimeException e) {
+			success = false;
+		}
+		return success;
+	}
+
+	/**
+	 * Get the valid latitude range of longitude latitude degree sources,
+	 * including the Web Mercator latitude limits for Mercator targets
+	 * 
+	 * @return latitude range as [min, max], or null if the source is not in
+	 *         degrees
+	 */
+	private double[] getLatitudeRange() {
+		double[] range = null;
+		if (fromProjection.isUnit(Units.DEGREES)) {
+			if (toProjection.getCrs()
+					.getProjection() instanceof MercatorProjection) {
+				range = new double[] {
+						ProjectionConstants.WEB_MERCATOR_MIN_LAT_RANGE,
+						ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE };
+			} else {
+				range = new double[] {
+						-ProjectionConstants.WGS84_HALF_WORLD_LAT_HEIGHT,
+						ProjectionConstants.WGS84_HALF_WORLD_LAT_HEIGHT };
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Check if the latitude is within the latitude range, NaN latitudes
+	 * failing as non-finite results instead
+	 * 
+	 * @param latitudeRange
+	 *            latitude range as [min, max]
+	 * @param latitude
+	 *            latitude
+	 * @return true if not beyond the range
+	 */
+	private static boolean inRange(double[] latitudeRange, double latitude) {
+		return !(latitude < latitudeRange[0] || latitude > latitudeRange[1]);
+	}
+
+	/**
+	 * Clamp a source longitude latitude coordinate to the valid longitude and
+	 * latitude ranges, including the Web Mercator latitude limits for
+	 * Mercator targets
+	 * 
+	 * @param coordinate
+	 *            coordinate as [x, y] to clamp in place
+	 * @return true if clamped to a different finite coordinate
+	 */
+	private boolean clamp(double[] coordinate) {
+		boolean clamped = false;
+		double[] latitudeRange = getLatitudeRange();
+		if (latitudeRange != null && !Double.isNaN(coordinate[0])
+				&& !Double.isNaN(coordinate[1])) {
+			double longitude = Math.max(
+					-ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH,
+					Math.min(ProjectionConstants.WGS84_HALF_WORLD_LON_WIDTH,
+							coordinate[0]));
+			double latitude = Math.max(latitudeRange[0],
+					Math.min(latitudeRange[1], coordinate[1]));
+			clamped = longitude != coordinate[0] || latitude != coordinate[1];
+			coordinate[0] = longitude;
+			coordinate[1] = latitude;
+		}
+		return clamped;
+	}
+
+	/**
+	 * Check if the coordinate values are finite
+	 * 
+	 * @param coordinates
+	 *            coordinates
+	 * @param index
+	 *            coordinate array index
+	 * @param dimension
+	 *            coordinate dimension
+	 * @return true if finite
+	 */
+	private static boolean isFinite(double[] coordinates, int index,
+			int dimension) {
+		return Double.isFinite(coordinates[index])
+				&& Double.isFinite(coordinates[index + 1])
+				&& (dimension == 2 || Double.isFinite(coordinates[index + 2]));
+	}
+
+	/**
+	 * Write NaN values for a failed coordinate and record the failure
+	 * 
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstIndex
+	 *            destination array index
+	 * @param dimension
+	 *            coordinate dimension
+	 * @param index
+	 *            coordinate index
+	 * @param failures
+	 *            failure mask or null
+	 */
+	private static void fail(double[] dst, int dstIndex, int dimension,
+			int index, long[] failures) {
+		dst[dstIndex] = Double.NaN;
+		dst[dstIndex + 1] = Double.NaN;
+		if (dimension == 3) {
+			dst[dstIndex + 2] = Double.NaN;
+		}
+		if (failures != null) {
+			failures[index >>> 6] |= 1L << index;
+		}
+	}
+
+	/**
+	 * Transform the interleaved coordinates from the source array into the
+	 * destination array
+	 * 
+	 * @param src
+	 *            source coordinates as [x, y, ...] or [x, y, z, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param count
+	 *            number of coordinates
+	 */
+	private void transformBatch(double[] src, int srcOffset, double[] dst,
+			int dstOffset, int dimension, int count) {
+
+		if (identity) {
+			if (src != dst || srcOffset != dstOffset) {
+				System.arraycopy(src, srcOffset, dst, dstOffset,
+						count * dimension);
+			}
+			return;
+		}
+
+		if (dimension == 2 && kernel != null) {
+			BulkKernels.transform(kernel, src, srcOffset, dst, dstOffset,
+					count);
+			return;
+		}
+
+		ProjCoordinate from = new ProjCoordinate();
+		ProjCoordinate to = new ProjCoordinate();
+
+		if (dimension == 3) {
+			for (int i = 0; i < count; i++) {
+				int srcIndex = srcOffset + i * 3;
+				int dstIndex = dstOffset + i * 3;
+				from.setValue(src[srcIndex], src[srcIndex + 1],
+						src[srcIndex + 2]);
+				heightTransform.transform(from, to);
+				dst[dstIndex] = to.x;
+				dst[dstIndex + 1] = to.y;
+				dst[dstIndex + 2] = to.z;
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				int srcIndex = srcOffset + i * 2;
+				int dstIndex = dstOffset + i * 2;
+				from.setValue(src[srcIndex], src[srcIndex + 1]);
+				transform.transform(from, to);
+				dst[dstIndex] = to.x;
+				dst[dstIndex + 1] = to.y;
+			}
+		}
+
+	}
+
+	/**
+	 * Transform the interleaved coordinates in place from the buffer position
+	 * to the buffer limit, advancing the position past the last transformed
+	 * coordinate. Heap and direct buffers are both supported, including views
+	 * of direct
+	 * {@link java.nio.ByteBuffer}s created with
+	 * {@link java.nio.ByteBuffer#asDoubleBuffer()}.
+	 * 
+	 * @param buffer
+	 *            coordinates buffer as [x, y, ...] or [x, y, z, ...]
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @since 1.1.5
+	 */
+	public void transform(DoubleBuffer buffer, int dimension) {
+		transform(buffer, dimension, dimension);
+	}
+
+	/**
+	 * Transform the strided coordinates in place from the buffer position to
+	 * the buffer limit, advancing the position past the last transformed
+	 * coordinate. Values between coordinates within the stride are left
+	 * unchanged.
+	 * 
+	 * @param buffer
+	 *            coordinates buffer
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param stride
+	 *            number of buffer values from the start of one coordinate to
+	 *            the start of the next, at least the dimension
+	 * @since 1.1.5
+	 */
+	public void transform(DoubleBuffer buffer, int dimension, int stride) {
+		transform(buffer, buffer, dimension, stride);
+	}
+
+	/**
+	 * Transform the strided coordinates from the source buffer position to
+	 * the source buffer limit into the destination buffer starting at its
+	 * position. Both positions are advanced past the last coordinate. The
+	 * source and destination may be the same buffer to transform in place.
+	 * 
+	 * @param src
+	 *            source coordinates buffer
+	 * @param dst
+	 *            destination coordinates buffer
+	 * @param dimension
+	 *            coordinate dimension, 2 (x, y) or 3 (x, y, z)
+	 * @param stride
+	 *            number of buffer values from the start of one coordinate to
+	 *            the start of the next in both buffers, at least the dimension
+	 * @since 1.1.5
+	 */
+	public void transform(DoubleBuffer src, DoubleBuffer dst, int dimension,
+			int stride) {
+		validateDimension(dimension);
+		if (stride < dimension) {
+			throw new IllegalArgumentException(
+					"Stride must be at least the dimension, stride: " + stride
+							+ ", dimension: " + dimension);
+		}
+
+		int remaining = src.remaining();
+		int count = remaining < dimension ? 0
+				: (remaining - dimension) / stride + 1;
+		int length = Math.min(count * stride, remaining);
+
+		BulkTransformEvent event = new BulkTransformEvent();
+		event.begin();
+
+		boolean inPlace = src == dst;
+		int srcPosition = src.position();
+		int dstPosition = dst.position();
+		if (!inPlace && count > 0
+				&& dst.remaining() < (count - 1) * stride + dimension) {
+			throw new BufferOverflowException();
+		}
+
+		if (identity) {
+			if (!inPlace) {
+				for (int i = 0; i < count; i++) {
+					int srcIndex = srcPosition + i * stride;
+					int dstIndex = dstPosition + i * stride;
+					for (int j = 0; j < dimension; j++) {
+						dst.put(dstIndex + j, src.get(srcIndex + j));
+					}
+				}
+			}
+		} else {
+
+			ProjCoordinate from = new ProjCoordinate();
+			ProjCoordinate to = new ProjCoordinate();
+			CoordinateTransform coordinateTransform = dimension == 3
+					? heightTransform
+					: transform;
+
+			for (int i = 0; i < count; i++) {
+				int srcIndex = srcPosition + i * stride;
+				int dstIndex = dstPosition + i * stride;
+				if (dimension == 3) {
+					from.setValue(src.get(srcIndex), src.get(srcIndex + 1),
+							src.get(srcIndex + 2));
+				} else {
+					from.setValue(src.get(srcIndex), src.get(srcIndex + 1));
+				}
+				coordinateTransform.transform(from, to);
+				dst.put(dstIndex, to.x);
+				dst.put(dstIndex + 1, to.y);
+				if (dimension == 3) {
+					dst.put(dstIndex + 2, to.z);
+				}
+			}
+
+		}
+
+		src.position(srcPosition + length);
+		if (!inPlace) {
+			dst.position(Math.min(dstPosition + length, dst.limit()));
+		}
+
+		commit(event, dimension, count);
+	}
+
+	/**
+	 * Commit a bulk transform flight recorder event if recording
+	 * 
+	 * @param event
+	 *            begun bulk transform event
+	 * @param dimension
+	 *            coordinate dimension
+	 * @param count
+	 *            number of coordinates
+	 */
+	private void commit(BulkTransformEvent event, int dimension, int count) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.from = fromProjection.toString();
+			event.to = toProjection.toString();
+			event.dimension = dimension;
+			event.count = count;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Validate the coordinate dimension as 2 (x, y) or 3 (x, y, z)
+	 * 
+	 * @param dimension
+	 *            coordinate dimension
+	 */
+	protected static void validateDimension(int dimension) {
+		if (dimension != 2 && dimension != 3) {
+			throw new IllegalArgumentException(
+					"Coordinate dimension must be 2 or 3, dimension: "
+							+ dimension);
+		}
+	}
+
 	/**
 	 * Transform the coordinate bounds
 	 * 
@@ -281,33 +1092,66 @@ public class ProjectionTransform {
 	public double[] transform(double minX, double minY, double maxX,
 			double maxY) {
 
-		ProjCoordinate lowerLeft = new ProjCoordinate(minX, minY);
-		ProjCoordinate lowerRight = new ProjCoordinate(maxX, minY);
-		ProjCoordinate upperRight = new ProjCoordinate(maxX, maxY);
-		ProjCoordinate upperLeft = new ProjCoordinate(minX, maxY);
-
-		ProjCoordinate projectedLowerLeft = transform(lowerLeft);
-		ProjCoordinate projectedLowerRight = transform(lowerRight);
-		ProjCoordinate projectedUpperRight = transform(upperRight);
-		ProjCoordinate projectedUpperLeft = transform(upperLeft);
+		double[] corners = new double[] { minX, minY, maxX, minY, maxX, maxY,
+				minX, maxY };
+		transform(corners, 0, corners, 0, 2, 4);
 
 		double[] bounds = new double[4];
-		bounds[0] = Math.min(projectedLowerLeft.x, projectedUpperLeft.x);
-		bounds[1] = Math.min(projectedLowerLeft.y, projectedLowerRight.y);
-		bounds[2] = Math.max(projectedLowerRight.x, projectedUpperRight.x);
-		bounds[3] = Math.max(projectedUpperLeft.y, projectedUpperRight.y);
-
-		if (bounds[0] > bounds[2]) {
-			bounds[0] = Math.max(projectedLowerLeft.x, projectedUpperLeft.x);
-			bounds[2] = Math.min(projectedLowerRight.x, projectedUpperRight.x);
+		bounds(corners, 0, 2, 4, 6, bounds, 0);
+
+		return bounds;
+	}
+
+	/**
+	 * Determine the bounds of four transformed corner coordinates, where a
+	 * transform may have reversed an axis direction
+	 * 
+	 * @param corners
+	 *            transformed corner coordinates as [x, y, ...]
+	 * @param lowerLeft
+	 *            lower left x index
+	 * @param lowerRight
+	 *            lower right x index
+	 * @param upperRight
+	 *            upper right x index
+	 * @param upperLeft
+	 *            upper left x index
+	 * @param bounds
+	 *            bounds array to populate as [min x, min y, max x, max y]
+	 * @param offset
+	 *            bounds array offset
+	 */
+	static void bounds(double[] corners, int lowerLeft, int lowerRight,
+			int upperRight, int upperLeft, double[] bounds, int offset) {
+
+		double lowerLeftX = corners[lowerLeft];
+		double lowerLeftY = corners[lowerLeft + 1];
+		double lowerRightX = corners[lowerRight];
+		double lowerRightY = corners[lowerRight + 1];
+		double upperRightX = corners[upperRight];
+		double upperRightY = corners[upperRight + 1];
+		double upperLeftX = corners[upperLeft];
+		double upperLeftY = corners[upperLeft + 1];
+
+		double minX = Math.min(lowerLeftX, upperLeftX);
+		double minY = Math.min(lowerLeftY, lowerRightY);
+		double maxX = Math.max(lowerRightX, upperRightX);
+		double maxY = Math.max(upperLeftY, upperRightY);
+
+		if (minX > maxX) {
+			minX = Math.max(lowerLeftX, upperLeftX);
+			maxX = Math.min(lowerRightX, upperRightX);
 		}
 
-		if (bounds[1] > bounds[3]) {
-			bounds[1] = Math.max(projectedLowerLeft.y, projectedLowerRight.y);
-			bounds[3] = Math.min(projectedUpperLeft.y, projectedUpperRight.y);
+		if (minY > maxY) {
+			minY = Math.max(lowerLeftY, lowerRightY);
+			maxY = Math.min(upperLeftY, upperRightY);
 		}
 
-		return bounds;
+		bounds[offset] = minX;
+		bounds[offset + 1] = minY;
+		bounds[offset + 2] = maxX;
+		bounds[offset + 3] = maxY;
 	}
 
 	/**
@@ -337,6 +1181,37 @@ public class ProjectionTransform {
 		return transform;
 	}
 
+	/**
+	 * Does the transform run two dimensional bulk transforms as a kernel?
+	 * 
+	 * @return true if a kernel transform
+	 * @since 1.1.5
+	 */
+	public boolean isKernel() {
+		return kernel != null;
+	}
+
+	/**
+	 * Get the two dimensional bulk transform kernel
+	 * 
+	 * @return kernel, null when not supported
+	 */
+	TransformKernel getKernel() {
+		return kernel;
+	}
+
+	/**
+	 * Is the transform an identity between mathematically equivalent from and
+	 * to projections? Identity transforms copy coordinates without
+	 * transforming.
+	 * 
+	 * @return true if an identity transform
+	 * @since 1.1.5
+	 */
+	public boolean isIdentity() {
+		return identity;
+	}
+
 	/**
 	 * Is the from and to projection the same?
 	 * 
@@ -347,12 +1222,25 @@ public class ProjectionTransform {
 	}
 
 	/**
-	 * Get the inverse transformation
+	 * Get the inverse transformation. The inverse is created once and cached,
+	 * with this transform as its cached inverse. The same inverse instance is
+	 * returned to every caller, so like this transform it must not be used
+	 * by multiple threads of execution at once. Threads transforming in the
+	 * inverse direction concurrently should each use their own copy, see
+	 * {@link #ProjectionTransform(ProjectionTransform)}.
 	 * 
 	 * @return inverse transformation
 	 */
 	public ProjectionTransform getInverseTransformation() {
-		return toProjection.getTransformation(fromProjection);
+		ProjectionTransform inverseTransform = inverse;
+		if (inverseTransform == null) {
+			// Concurrent first calls may each create an equivalent inverse,
+			// the last created is retained
+			inverseTransform = toProjection.getTransformation(fromProjection);
+			inverseTransform.inverse = this;
+			inverse = inverseTransform;
+		}
+		return inverseTransform;
 	}
 
 }
@@ -0,0 +1,324 @@
+package mil.nga.proj;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a directory of authority projection property files, named
+ * {@value ProjectionRetriever#PROJECTIONS_PROPERTY_FILE_PREFIX}
+ * .lower_case_authority.
+ * {@value ProjectionRetriever#PROJECTIONS_PROPERTY_FILE_SUFFIX}, and reloads
+ * authorities as their files change. Reloaded definitions are compared
+ * against the previous definitions and only the cached projections of added,
+ * changed, or removed codes are cleared from the {@link ProjectionFactory}.
+ * Files should be replaced atomically (written to a temporary file and moved)
+ * so a partially written file is never reloaded.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionWatcher implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger log = Logger
+			.getLogger(ProjectionWatcher.class.getName());
+
+	/**
+	 * Projection property file name prefix including separator
+	 */
+	private static final String FILE_PREFIX = ProjectionRetriever.PROJECTIONS_PROPERTY_FILE_PREFIX
+			+ ".";
+
+	/**
+	 * Projection property file name suffix including separator
+	 */
+	private static final String FILE_SUFFIX = "."
+			+ ProjectionRetriever.PROJECTIONS_PROPERTY_FILE_SUFFIX;
+
+	/**
+	 * Delay after a file event before reloading, coalescing the events of a
+	 * single file write
+	 */
+	private static final long SETTLE_MILLIS = 100;
+
+	/**
+	 * Watched directory
+	 */
+	private final File directory;
+
+	/**
+	 * Directory watch service
+	 */
+	private final WatchService watchService;
+
+	/**
+	 * Watch thread
+	 */
+	private final Thread thread;
+
+	/**
+	 * Authorities loaded from files in the directory
+	 */
+	private final Set<String> authorities = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Load the projection property files in the directory and watch for
+	 * changes
+	 *
+	 * @param directory
+	 *            projection properties directory
+	 * @return started projection watcher
+	 * @throws IOException
+	 *             upon failure to watch the directory
+	 */
+	public static ProjectionWatcher watch(File directory) throws IOException {
+		ProjectionWatcher watcher = new ProjectionWatcher(directory);
+		watcher.loadAll();
+		watcher.start();
+		return watcher;
+	}
+
+	/**
+	 * Constructor, registers the directory watch without loading or starting
+	 *
+	 * @param directory
+	 *            projection properties directory
+	 * @throws IOException
+	 *             upon failure to watch the directory
+	 */
+	public ProjectionWatcher(File directory) throws IOException {
+		if (!directory.isDirectory()) {
+			throw new IllegalArgumentException(
+					"Not a directory: " + directory.getAbsolutePath());
+		}
+		this.directory = directory;
+		watchService = FileSystems.getDefault().newWatchService();
+		directory.toPath().register(watchService,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+		thread = new Thread(this::run,
+				"projection-watcher-" + directory.getName());
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Get the watched directory
+	 *
+	 * @return directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Start watching for directory changes on a daemon thread
+	 */
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Load all projection property files in the directory, and revert the
+	 * previously loaded authorities whose files no longer exist
+	 */
+	public void loadAll() {
+		Set<String> removed = new HashSet<>(authorities);
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String authority = getAuthority(file.getName());
+				if (authority != null && file.isFile()) {
+					removed.remove(authority);
+					update(file);
+				}
+			}
+		}
+		for (String authority : removed) {
+			update(new File(directory, FILE_PREFIX + authority + FILE_SUFFIX));
+		}
+	}
+
+	/**
+	 * Get the authority of a projection property file name
+	 *
+	 * @param fileName
+	 *            file name
+	 * @return authority or null if not a projection property file
+	 */
+	public static String getAuthority(String fileName) {
+		String authority = null;
+		if (fileName.length() > FILE_PREFIX.length() + FILE_SUFFIX.length()
+				&& fileName.startsWith(FILE_PREFIX)
+				&& fileName.endsWith(FILE_SUFFIX)) {
+			authority = fileName.substring(FILE_PREFIX.length(),
+					fileName.length() - FILE_SUFFIX.length());
+		}
+		return authority;
+	}
+
+	/**
+	 * Reload the authority projection property file, or revert the authority
+	 * to the default projections if the file no longer exists, and clear the
+	 * cached projections of the changed codes
+	 *
+	 * @param file
+	 *            projection property file
+	 * @return changed codes
+	 */
+	public Set<String> update(File file) {
+
+		String authority = getAuthority(file.getName());
+		if (authority == null) {
+			throw new IllegalArgumentException(
+					"Not a projection property file: " + file.getName());
+		}
+
+		Properties previous = ProjectionRetriever.getProjections(authority);
+
+		Properties current;
+		if (file.isFile()) {
+			current = new Properties();
+			try (InputStream in = new FileInputStream(file)) {
+				current.load(in);
+			} catch (IOException e) {
+				log.log(Level.WARNING, "Failed to reload authority: "
+						+ authority + ", file: " + file, e);
+				return new HashSet<>();
+			}
+			ProjectionRetriever.setProjections(authority, current);
+			authorities.add(authority);
+		} else {
+			ProjectionRetriever.clear(authority);
+			current = ProjectionRetriever.getOrCreateProjections(authority);
+			authorities.remove(authority);
+		}
+
+		Set<String> changed;
+		if (previous == null) {
+			// Previously cached projections are of unknown definitions
+			changed = current.stringPropertyNames();
+			ProjectionFactory.clear(authority);
+		} else {
+			changed = diff(previous, current);
+			ProjectionFactory.clear(authority, changed);
+		}
+
+		if (!changed.isEmpty()) {
+			log.log(Level.INFO, "Reloaded authority: " + authority
+					+ ", changed codes: " + changed.size());
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Determine the added, changed, and removed codes between projection
+	 * properties
+	 *
+	 * @param previous
+	 *            previous projection properties
+	 * @param current
+	 *            current projection properties
+	 * @return changed codes
+	 */
+	public static Set<String> diff(Properties previous, Properties current) {
+		Set<String> changed = new HashSet<>();
+		for (String code : previous.stringPropertyNames()) {
+			String definition = current.getProperty(code);
+			if (definition == null || !definition.trim()
+					.equals(previous.getProperty(code).trim())) {
+				changed.add(code);
+			}
+		}
+		for (String code : current.stringPropertyNames()) {
+			if (previous.getProperty(code) == null) {
+				changed.add(code);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Process directory watch events until closed
+	 */
+	private void run() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+
+				// Let writes settle and coalesce repeated file events
+				Thread.sleep(SETTLE_MILLIS);
+
+				boolean overflow = false;
+				Set<String> fileNames = new LinkedHashSet<>();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						overflow = true;
+					} else {
+						String fileName = ((Path) event.context()).toString();
+						if (getAuthority(fileName) != null) {
+							fileNames.add(fileName);
+						}
+					}
+				}
+				boolean valid = key.reset();
+
+				if (overflow) {
+					loadAll();
+				} else {
+					for (String fileName : fileNames) {
+						try {
+							update(new File(directory, fileName));
+						} catch (RuntimeException e) {
+							log.log(Level.WARNING,
+									"Failed to reload projection file: "
+											+ fileName,
+									e);
+						}
+					}
+				}
+
+				if (!valid) {
+					log.log(Level.WARNING,
+							"Projection directory no longer watchable: "
+									+ directory);
+					break;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// closed
+		}
+	}
+
+	/**
+	 * Stop watching the directory
+	 *
+	 * @throws IOException
+	 *             upon failure to close the watch service
+	 */
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+}
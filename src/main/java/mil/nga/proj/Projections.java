@@ -1,7 +1,8 @@
 package mil.nga.proj;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Collection of projections by authority
@@ -13,7 +14,7 @@ public class Projections {
 	/**
 	 * Mapping of authorities to authority projections
 	 */
-	private Map<String, AuthorityProjections> authorities = new HashMap<>();
+	private Map<String, AuthorityProjections> authorities = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructor
@@ -82,15 +83,8 @@ public class Projections {
 	 *            projection
 	 */
 	public void addProjection(Projection projection) {
-		String authority = projection.getAuthority();
-		AuthorityProjections authorityProjections = getProjections(authority);
-		if (authorityProjections == null) {
-			authorityProjections = new AuthorityProjections(
-					authority.toUpperCase());
-			authorities.put(authorityProjections.getAuthority(),
-					authorityProjections);
-		}
-		authorityProjections.addProjection(projection);
+		authorities.computeIfAbsent(projection.getAuthority().toUpperCase(),
+				AuthorityProjections::new).addProjection(projection);
 	}
 
 	/**
@@ -150,6 +144,16 @@ public class Projections {
 		remove(projection.getAuthority(), projection.getCode());
 	}
 
+	/**
+	 * Get the authorities
+	 * 
+	 * @return authorities
+	 * @since 1.1.5
+	 */
+	public Set<String> getAuthorities() {
+		return authorities.keySet();
+	}
+
 	/**
 	 * Get the count of authorities
 	 * 
@@ -0,0 +1,50 @@
+package mil.nga.proj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a {@link ProjectionFactory} projection resolution
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+@Name(ResolutionEvent.NAME)
+@Label("Projection Resolution")
+@Category("Projections")
+@Description("Projection factory resolution of an authority code, definition, or parameters")
+class ResolutionEvent extends Event {
+
+	/**
+	 * Event name
+	 */
+	static final String NAME = "mil.nga.proj.Resolution";
+
+	/**
+	 * Coordinate authority
+	 */
+	@Label("Authority")
+	String authority;
+
+	/**
+	 * Coordinate code
+	 */
+	@Label("Code")
+	String code;
+
+	/**
+	 * Resolving projection factory type, null if not resolved
+	 */
+	@Label("Resolver Type")
+	String type;
+
+	/**
+	 * Resolved from the projection cache
+	 */
+	@Label("Cache Hit")
+	boolean cacheHit;
+
+}
@@ -0,0 +1,50 @@
+package mil.nga.proj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a {@link ProjectionTransform} creation
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+@Name(TransformCreationEvent.NAME)
+@Label("Transform Creation")
+@Category("Projections")
+@Description("Creation of a projection transform between two projections")
+class TransformCreationEvent extends Event {
+
+	/**
+	 * Event name
+	 */
+	static final String NAME = "mil.nga.proj.TransformCreation";
+
+	/**
+	 * From projection
+	 */
+	@Label("From")
+	String from;
+
+	/**
+	 * To projection
+	 */
+	@Label("To")
+	String to;
+
+	/**
+	 * Identity transform between equivalent projections
+	 */
+	@Label("Identity")
+	boolean identity;
+
+	/**
+	 * Transform has a bulk kernel
+	 */
+	@Label("Bulk Kernel")
+	boolean kernel;
+
+}
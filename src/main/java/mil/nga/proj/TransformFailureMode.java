@@ -0,0 +1,31 @@
+package mil.nga.proj;
+
+/**
+ * Bulk transform handling of coordinates that fail to transform, such as
+ * coordinates outside of the projection domain
+ * 
+ * @author osbornb
+ * @since 1.1.5
+ */
+public enum TransformFailureMode {
+
+	/**
+	 * Throw the transform exception of the first failed coordinate, aborting
+	 * the batch
+	 */
+	THROW,
+
+	/**
+	 * Write NaN values for failed coordinates and record the failures
+	 */
+	NAN,
+
+	/**
+	 * Retry failed longitude latitude coordinates clamped to the valid
+	 * longitude and latitude ranges, including the Web Mercator latitude
+	 * limits for Mercator targets, writing NaN values and recording the
+	 * failures of coordinates still failing
+	 */
+	CLAMP;
+
+}
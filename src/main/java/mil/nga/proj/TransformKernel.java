@@ -0,0 +1,290 @@
+package mil.nga.proj;
+
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.datum.AxisOrder;
+import org.locationtech.proj4j.datum.Ellipsoid;
+import org.locationtech.proj4j.datum.PrimeMeridian;
+import org.locationtech.proj4j.proj.LongLatProjection;
+import org.locationtech.proj4j.proj.MercatorProjection;
+import org.locationtech.proj4j.proj.PlateCarreeProjection;
+import org.locationtech.proj4j.units.Units;
+
+/**
+ * Bulk two dimensional transform kernel between geographic degrees and a
+ * spherical Mercator or Plate Carree (equirectangular) projection. Kernels
+ * apply the same arithmetic as the proj4j transform steps without the per
+ * coordinate axis, prime meridian, and datum steps, and are only created when
+ * they reproduce the proj4j transform exactly at probe coordinates.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+class TransformKernel {
+
+	/**
+	 * Degrees to radians
+	 */
+	static final double DTR = Math.PI / 180;
+
+	/**
+	 * Radians to degrees
+	 */
+	static final double RTD = 57.29577951308232;
+
+	/**
+	 * Quarter pi
+	 */
+	static final double QUARTER_PI = 0.7853981633974483;
+
+	/**
+	 * Half pi
+	 */
+	static final double HALF_PI = 1.5707963267948966;
+
+	/**
+	 * Geographic probe coordinates as [longitude, latitude, ...]
+	 */
+	private static final double[] GEOGRAPHIC_PROBES = new double[] { 0.0,
+			0.0, -120.5, 45.25, 179.0, -80.0, 10.123456789, 60.987654321 };
+
+	/**
+	 * Projected probe coordinates as [x, y, ...]
+	 */
+	private static final double[] PROJECTED_PROBES = new double[] { 0.0, 0.0,
+			1000000.0, -2000000.0, -15000000.0, 5000000.0, 123456.789,
+			7654321.0 };
+
+	/**
+	 * Forward kernel from geographic degrees when true, inverse kernel to
+	 * geographic degrees when false
+	 */
+	final boolean forward;
+
+	/**
+	 * Mercator projection when true, Plate Carree when false
+	 */
+	final boolean mercator;
+
+	/**
+	 * Projection scale factor
+	 */
+	final double scaleFactor;
+
+	/**
+	 * Projection total scale, the equator radius in projection units
+	 */
+	final double totalScale;
+
+	/**
+	 * Projection total false easting in projection units
+	 */
+	final double falseEasting;
+
+	/**
+	 * Projection total false northing in projection units
+	 */
+	final double falseNorthing;
+
+	/**
+	 * Create a kernel for the projection transform if supported
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @return kernel or null
+	 */
+	static TransformKernel create(ProjectionTransform transform) {
+
+		org.locationtech.proj4j.proj.Projection from = transform
+				.getFromProjection().getCrs().getProjection();
+		org.locationtech.proj4j.proj.Projection to = transform
+				.getToProjection().getCrs().getProjection();
+
+		TransformKernel kernel = null;
+		double[] probes = null;
+		if (isGeographic(from) && isCylindrical(to)) {
+			kernel = new TransformKernel(true, to);
+			probes = GEOGRAPHIC_PROBES;
+		} else if (isCylindrical(from) && isGeographic(to)) {
+			kernel = new TransformKernel(false, from);
+			probes = PROJECTED_PROBES;
+		}
+
+		if (kernel != null && !kernel.matches(transform.getTransform(),
+				probes)) {
+			kernel = null;
+		}
+
+		return kernel;
+	}
+
+	/**
+	 * Check if the projection is geographic degrees supported by kernels
+	 *
+	 * @param projection
+	 *            proj4j projection
+	 * @return true if supported geographic
+	 */
+	private static boolean isGeographic(
+			org.locationtech.proj4j.proj.Projection projection) {
+		return projection != null
+				&& projection.getClass() == LongLatProjection.class
+				&& isSimple(projection);
+	}
+
+	/**
+	 * Check if the projection is a cylindrical projection supported by kernels
+	 *
+	 * @param projection
+	 *            proj4j projection
+	 * @return true if supported cylindrical
+	 */
+	private static boolean isCylindrical(
+			org.locationtech.proj4j.proj.Projection projection) {
+		boolean cylindrical = false;
+		if (projection != null && isSimple(projection)
+				&& !Units.DEGREES.equals(projection.getUnits())) {
+			if (projection.getClass() == MercatorProjection.class) {
+				Ellipsoid ellipsoid = projection.getEllipsoid();
+				cylindrical = ellipsoid != null
+						&& ellipsoid.getEccentricitySquared() == 0.0;
+			} else {
+				cylindrical = projection
+						.getClass() == PlateCarreeProjection.class;
+			}
+		}
+		return cylindrical;
+	}
+
+	/**
+	 * Check if the projection has a zero central meridian, east north up axis
+	 * order, and the Greenwich prime meridian
+	 *
+	 * @param projection
+	 *            proj4j projection
+	 * @return true if simple
+	 */
+	private static boolean isSimple(
+			org.locationtech.proj4j.proj.Projection projection) {
+		return projection.getProjectionLongitude() == 0.0
+				&& AxisOrder.ENU.equals(projection.getAxisOrder())
+				&& PrimeMeridian.forName("greenwich")
+						.equals(projection.getPrimeMeridian());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param forward
+	 *            true if from geographic degrees
+	 * @param projection
+	 *            cylindrical projection
+	 */
+	private TransformKernel(boolean forward,
+			org.locationtech.proj4j.proj.Projection projection) {
+		this.forward = forward;
+		this.mercator = projection instanceof MercatorProjection;
+		this.scaleFactor = projection.getScaleFactor();
+		double fromMetres = projection.getFromMetres();
+		this.totalScale = projection.getEquatorRadius() * fromMetres;
+		this.falseEasting = projection.getFalseEasting() * fromMetres;
+		this.falseNorthing = projection.getFalseNorthing() * fromMetres;
+	}
+
+	/**
+	 * Check if the kernel reproduces the proj4j transform at the probe
+	 * coordinates
+	 *
+	 * @param transform
+	 *            proj4j coordinate transform
+	 * @param probes
+	 *            probe coordinates
+	 * @return true if matching
+	 */
+	private boolean matches(CoordinateTransform transform, double[] probes) {
+		boolean matches = true;
+		double[] transformed = new double[probes.length];
+		transform(probes, 0, transformed, 0, probes.length / 2);
+		ProjCoordinate to = new ProjCoordinate();
+		for (int i = 0; matches && i < probes.length; i += 2) {
+			try {
+				transform.transform(
+						new ProjCoordinate(probes[i], probes[i + 1]), to);
+				matches = Double.compare(to.x, transformed[i]) == 0
+						&& Double.compare(to.y, transformed[i + 1]) == 0;
+			} catch (RuntimeException e) {
+				matches = false;
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Transform the interleaved coordinates
+	 *
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 */
+	void transform(double[] src, int srcOffset, double[] dst, int dstOffset,
+			int count) {
+		for (int i = 0; i < count; i++) {
+			int srcIndex = srcOffset + i * 2;
+			int dstIndex = dstOffset + i * 2;
+			double x = src[srcIndex];
+			double y = src[srcIndex + 1];
+			if (forward) {
+				double lambda = clampLongitude(x * DTR);
+				double phi = y * DTR;
+				if (mercator) {
+					x = scaleFactor * lambda;
+					y = scaleFactor
+							* Math.log(Math.tan(QUARTER_PI + 0.5 * phi));
+				} else {
+					x = lambda;
+					y = phi;
+				}
+				dst[dstIndex] = totalScale * x + falseEasting;
+				dst[dstIndex + 1] = totalScale * y + falseNorthing;
+			} else {
+				x = (x - falseEasting) / totalScale;
+				y = (y - falseNorthing) / totalScale;
+				double lambda;
+				double phi;
+				if (mercator) {
+					phi = HALF_PI - 2.0 * Math.atan(Math.exp(-y / scaleFactor));
+					lambda = x / scaleFactor;
+				} else {
+					lambda = x;
+					phi = y;
+				}
+				dst[dstIndex] = clampLongitude(lambda) * RTD;
+				dst[dstIndex + 1] = phi * RTD;
+			}
+		}
+	}
+
+	/**
+	 * Clamp the radians longitude to [-pi, pi]
+	 *
+	 * @param lambda
+	 *            radians longitude
+	 * @return clamped longitude
+	 */
+	static double clampLongitude(double lambda) {
+		if (lambda < -Math.PI) {
+			lambda = -Math.PI;
+		} else if (lambda > Math.PI) {
+			lambda = Math.PI;
+		}
+		return lambda;
+	}
+
+}
@@ -0,0 +1,372 @@
+package mil.nga.proj;
+
+import java.util.Arrays;
+
+/**
+ * Bulk transform of longitude latitude coordinates into the WGS 84 UTM zone
+ * of each coordinate, EPSG:326xx in the northern hemisphere and EPSG:327xx in
+ * the southern hemisphere, including the Norway and Svalbard zone exceptions.
+ * Coordinates north of 84 degrees or south of -80 degrees use the Universal
+ * Polar Stereographic projections EPSG:32661 and EPSG:32761. Coordinates are
+ * partitioned by zone with primitive counting, each partition transformed in
+ * bulk with a zone transform created once and cached. Not thread safe, use a
+ * transform per thread.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class UtmZoneTransform {
+
+	/**
+	 * Northern hemisphere UTM EPSG code base, added to the zone number
+	 */
+	public static final int EPSG_UTM_NORTH = 32600;
+
+	/**
+	 * Southern hemisphere UTM EPSG code base, added to the zone number
+	 */
+	public static final int EPSG_UTM_SOUTH = 32700;
+
+	/**
+	 * Universal Polar Stereographic north EPSG code
+	 */
+	public static final int EPSG_UPS_NORTH = 32661;
+
+	/**
+	 * Universal Polar Stereographic south EPSG code
+	 */
+	public static final int EPSG_UPS_SOUTH = 32761;
+
+	/**
+	 * Code of coordinates without a zone, such as out of range or NaN
+	 * coordinates
+	 */
+	public static final int NO_ZONE = 0;
+
+	/**
+	 * Number of zones per hemisphere, 60 UTM zones and a UPS zone
+	 */
+	private static final int HEMISPHERE_ZONES = 61;
+
+	/**
+	 * Source projection of longitude latitude coordinates
+	 */
+	private final Projection from;
+
+	/**
+	 * Cached zone transforms by zone index
+	 */
+	private final ProjectionTransform[] transforms = new ProjectionTransform[2
+			* HEMISPHERE_ZONES];
+
+	/**
+	 * Constructor, transforming from WGS 84 longitude latitude coordinates
+	 * (EPSG:4326)
+	 */
+	public UtmZoneTransform() {
+		this(ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param from
+	 *            source projection of longitude latitude degree coordinates
+	 */
+	public UtmZoneTransform(Projection from) {
+		this.from = from;
+	}
+
+	/**
+	 * Get the source projection
+	 *
+	 * @return source projection
+	 */
+	public Projection getFromProjection() {
+		return from;
+	}
+
+	/**
+	 * Get the UTM zone number of the coordinate, including the Norway and
+	 * Svalbard exceptions
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return zone number from 1 to 60
+	 */
+	public static int zone(double longitude, double latitude) {
+
+		double normalized = ProjectionConstants.normalizeLongitude(longitude);
+
+		// 180 is the start of zone 1
+		int zone = (int) Math.floor((normalized + 180.0) / 6.0) % 60 + 1;
+
+		if (latitude >= 56.0 && latitude < 64.0 && normalized >= 3.0
+				&& normalized < 12.0) {
+			// Southwest Norway
+			zone = 32;
+		} else if (latitude >= 72.0 && latitude < 84.0 && normalized >= 0.0
+				&& normalized < 42.0) {
+			// Svalbard
+			if (normalized < 9.0) {
+				zone = 31;
+			} else if (normalized < 21.0) {
+				zone = 33;
+			} else if (normalized < 33.0) {
+				zone = 35;
+			} else {
+				zone = 37;
+			}
+		}
+
+		return zone;
+	}
+
+	/**
+	 * Get the EPSG code of the UTM or UPS projection of the coordinate
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return EPSG code or {@link #NO_ZONE}
+	 */
+	public static int epsg(double longitude, double latitude) {
+		return code(zoneIndex(longitude, latitude));
+	}
+
+	/**
+	 * Get the zone index of the coordinate, UTM zones 0 to 59 and UPS 60 in
+	 * the northern hemisphere and offset by 61 in the southern hemisphere
+	 *
+	 * @param longitude
+	 *            longitude in degrees
+	 * @param latitude
+	 *            latitude in degrees
+	 * @return zone index, -1 if no zone
+	 */
+	private static int zoneIndex(double longitude, double latitude) {
+		int index = -1;
+		if (Double.isFinite(longitude) && latitude >= -90.0
+				&& latitude <= 90.0) {
+			if (latitude >= 84.0) {
+				index = HEMISPHERE_ZONES - 1;
+			} else if (latitude < -80.0) {
+				index = 2 * HEMISPHERE_ZONES - 1;
+			} else {
+				index = zone(longitude, latitude) - 1;
+				if (latitude < 0.0) {
+					index += HEMISPHERE_ZONES;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Get the EPSG code of a zone index
+	 *
+	 * @param index
+	 *            zone index
+	 * @return EPSG code or {@link #NO_ZONE}
+	 */
+	private static int code(int index) {
+		int code;
+		if (index < 0) {
+			code = NO_ZONE;
+		} else if (index < HEMISPHERE_ZONES) {
+			code = EPSG_UTM_NORTH + index + 1;
+		} else {
+			code = EPSG_UTM_SOUTH + index - HEMISPHERE_ZONES + 1;
+		}
+		return code;
+	}
+
+	/**
+	 * Get the cached transform to the zone projection
+	 *
+	 * @param epsg
+	 *            UTM or UPS EPSG code
+	 * @return projection transform
+	 */
+	public ProjectionTransform getTransform(int epsg) {
+		int index;
+		if (epsg > EPSG_UTM_NORTH && epsg <= EPSG_UPS_NORTH) {
+			index = epsg - EPSG_UTM_NORTH - 1;
+		} else if (epsg > EPSG_UTM_SOUTH && epsg <= EPSG_UPS_SOUTH) {
+			index = epsg - EPSG_UTM_SOUTH - 1 + HEMISPHERE_ZONES;
+		} else {
+			throw new IllegalArgumentException(
+					"Not a WGS 84 UTM or UPS EPSG code: " + epsg);
+		}
+		return transform(index);
+	}
+
+	/**
+	 * Get the cached transform of a zone index
+	 *
+	 * @param index
+	 *            zone index
+	 * @return projection transform
+	 */
+	private ProjectionTransform transform(int index) {
+		ProjectionTransform transform = transforms[index];
+		if (transform == null) {
+			transform = from.getTransformation(code(index));
+			transforms[index] = transform;
+		}
+		return transform;
+	}
+
+	/**
+	 * Transform the longitude latitude coordinates into their zones
+	 *
+	 * @param coordinates
+	 *            coordinates as [longitude, latitude, ...] in degrees
+	 * @return transformed zone coordinates and codes
+	 */
+	public Result transform(double[] coordinates) {
+		double[] transformed = new double[coordinates.length];
+		int[] codes = transform(coordinates, transformed);
+		return new Result(transformed, codes);
+	}
+
+	/**
+	 * Transform the longitude latitude coordinates into their zones.
+	 * Longitudes outside [-180, 180] are normalized. Points without a zone are
+	 * transformed to NaN.
+	 *
+	 * @param coordinates
+	 *            coordinates as [longitude, latitude, ...] in degrees
+	 * @param transformed
+	 *            transformed coordinates as [x, y, ...], may be the
+	 *            coordinates array
+	 * @return EPSG code of each transformed coordinate
+	 */
+	public int[] transform(double[] coordinates, double[] transformed) {
+
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"Coordinates length is not a multiple of 2. length: "
+							+ coordinates.length);
+		}
+		if (transformed.length < coordinates.length) {
+			throw new IllegalArgumentException(
+					"Transformed length is less than the coordinates length. "
+							+ "length: " + transformed.length
+							+ ", coordinates length: " + coordinates.length);
+		}
+
+		int count = coordinates.length / 2;
+		int[] codes = new int[count];
+
+		// Count the coordinates of each zone
+		int[] zoneIndices = new int[count];
+		int[] offsets = new int[transforms.length + 1];
+		for (int i = 0; i < count; i++) {
+			int index = zoneIndex(coordinates[i * 2], coordinates[i * 2 + 1]);
+			zoneIndices[i] = index;
+			codes[i] = code(index);
+			if (index >= 0) {
+				offsets[index + 1]++;
+			}
+		}
+		for (int index = 0; index < transforms.length; index++) {
+			offsets[index + 1] += offsets[index];
+		}
+
+		// Partition the coordinate positions by zone
+		int[] positions = new int[offsets[transforms.length]];
+		int[] next = Arrays.copyOf(offsets, transforms.length);
+		for (int i = 0; i < count; i++) {
+			int index = zoneIndices[i];
+			if (index >= 0) {
+				positions[next[index]++] = i;
+			} else {
+				transformed[i * 2] = Double.NaN;
+				transformed[i * 2 + 1] = Double.NaN;
+			}
+		}
+
+		// Transform each zone partition in bulk
+		double[] partition = null;
+		for (int index = 0; index < transforms.length; index++) {
+			int start = offsets[index];
+			int zoneCount = offsets[index + 1] - start;
+			if (zoneCount > 0) {
+				if (partition == null || partition.length < zoneCount * 2) {
+					partition = new double[zoneCount * 2];
+				}
+				for (int i = 0; i < zoneCount; i++) {
+					int position = positions[start + i] * 2;
+					// Transform the longitude the zone was chosen from
+					partition[i * 2] = ProjectionConstants
+							.normalizeLongitude(coordinates[position]);
+					partition[i * 2 + 1] = coordinates[position + 1];
+				}
+				transform(index).transform(partition, 0, partition, 0, 2,
+						zoneCount);
+				for (int i = 0; i < zoneCount; i++) {
+					int position = positions[start + i] * 2;
+					transformed[position] = partition[i * 2];
+					transformed[position + 1] = partition[i * 2 + 1];
+				}
+			}
+		}
+
+		return codes;
+	}
+
+	/**
+	 * Zone transform result
+	 */
+	public static class Result {
+
+		/**
+		 * Transformed coordinates
+		 */
+		private final double[] coordinates;
+
+		/**
+		 * EPSG code of each coordinate
+		 */
+		private final int[] codes;
+
+		/**
+		 * Constructor
+		 *
+		 * @param coordinates
+		 *            transformed coordinates
+		 * @param codes
+		 *            EPSG code of each coordinate
+		 */
+		private Result(double[] coordinates, int[] codes) {
+			this.coordinates = coordinates;
+			this.codes = codes;
+		}
+
+		/**
+		 * Get the transformed coordinates as [x, y, ...]
+		 *
+		 * @return coordinates
+		 */
+		public double[] getCoordinates() {
+			return coordinates;
+		}
+
+		/**
+		 * Get the EPSG code of each coordinate, {@link UtmZoneTransform#NO_ZONE}
+		 * for coordinates without a zone
+		 *
+		 * @return codes
+		 */
+		public int[] getCodes() {
+			return codes;
+		}
+
+	}
+
+}
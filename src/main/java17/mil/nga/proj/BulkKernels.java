@@ -0,0 +1,54 @@
+package mil.nga.proj;
+
+/**
+ * Bulk transform kernel execution. Vectorizes the kernels when the
+ * jdk.incubator.vector module is available (added with --add-modules
+ * jdk.incubator.vector) and otherwise runs the scalar kernels.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+class BulkKernels {
+
+	/**
+	 * Vector API availability
+	 */
+	private static final boolean VECTORIZED = ModuleLayer.boot()
+			.findModule("jdk.incubator.vector").isPresent();
+
+	/**
+	 * Check if kernels are vectorized
+	 *
+	 * @return true if vectorized
+	 */
+	static boolean isVectorized() {
+		return VECTORIZED;
+	}
+
+	/**
+	 * Transform the interleaved coordinates with the kernel
+	 *
+	 * @param kernel
+	 *            transform kernel
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 */
+	static void transform(TransformKernel kernel, double[] src, int srcOffset,
+			double[] dst, int dstOffset, int count) {
+		if (VECTORIZED) {
+			VectorKernels.transform(kernel, src, srcOffset, dst, dstOffset,
+					count);
+		} else {
+			kernel.transform(src, srcOffset, dst, dstOffset, count);
+		}
+	}
+
+}
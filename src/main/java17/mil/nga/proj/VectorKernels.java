@@ -0,0 +1,153 @@
+package mil.nga.proj;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations of the bulk transform kernels. Interleaved
+ * coordinates are split into x and y blocks, transformed across the vector
+ * lanes, and interleaved back. Trailing coordinates not filling the vector
+ * lanes use the scalar kernel.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+class VectorKernels {
+
+	/**
+	 * Preferred double vector species
+	 */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * Number of coordinates per split block
+	 */
+	private static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Transform the interleaved coordinates with the kernel
+	 *
+	 * @param kernel
+	 *            transform kernel
+	 * @param src
+	 *            source coordinates as [x, y, ...]
+	 * @param srcOffset
+	 *            source array offset of the first coordinate
+	 * @param dst
+	 *            destination coordinates
+	 * @param dstOffset
+	 *            destination array offset of the first coordinate
+	 * @param count
+	 *            number of coordinates
+	 */
+	static void transform(TransformKernel kernel, double[] src, int srcOffset,
+			double[] dst, int dstOffset, int count) {
+
+		int length = Math.min(count, BLOCK_SIZE);
+		double[] xs = new double[length];
+		double[] ys = new double[length];
+
+		for (int start = 0; start < count; start += BLOCK_SIZE) {
+
+			int blockCount = Math.min(BLOCK_SIZE, count - start);
+			int vectorCount = SPECIES.loopBound(blockCount);
+			int blockSrcOffset = srcOffset + start * 2;
+			int blockDstOffset = dstOffset + start * 2;
+
+			for (int i = 0; i < vectorCount; i++) {
+				xs[i] = src[blockSrcOffset + i * 2];
+				ys[i] = src[blockSrcOffset + i * 2 + 1];
+			}
+
+			for (int i = 0; i < vectorCount; i += SPECIES.length()) {
+				DoubleVector x = DoubleVector.fromArray(SPECIES, xs, i);
+				DoubleVector y = DoubleVector.fromArray(SPECIES, ys, i);
+				if (kernel.forward) {
+					forward(kernel, x, y, xs, ys, i);
+				} else {
+					inverse(kernel, x, y, xs, ys, i);
+				}
+			}
+
+			for (int i = 0; i < vectorCount; i++) {
+				dst[blockDstOffset + i * 2] = xs[i];
+				dst[blockDstOffset + i * 2 + 1] = ys[i];
+			}
+
+			if (vectorCount < blockCount) {
+				kernel.transform(src, blockSrcOffset + vectorCount * 2, dst,
+						blockDstOffset + vectorCount * 2,
+						blockCount - vectorCount);
+			}
+		}
+
+	}
+
+	/**
+	 * Forward transform from geographic degrees
+	 *
+	 * @param kernel
+	 *            transform kernel
+	 * @param x
+	 *            longitudes
+	 * @param y
+	 *            latitudes
+	 * @param xs
+	 *            x results
+	 * @param ys
+	 *            y results
+	 * @param offset
+	 *            results offset
+	 */
+	private static void forward(TransformKernel kernel, DoubleVector x,
+			DoubleVector y, double[] xs, double[] ys, int offset) {
+		DoubleVector lambda = x.mul(TransformKernel.DTR).max(-Math.PI)
+				.min(Math.PI);
+		DoubleVector phi = y.mul(TransformKernel.DTR);
+		if (kernel.mercator) {
+			lambda = lambda.mul(kernel.scaleFactor);
+			phi = phi.mul(0.5).add(TransformKernel.QUARTER_PI)
+					.lanewise(VectorOperators.TAN)
+					.lanewise(VectorOperators.LOG).mul(kernel.scaleFactor);
+		}
+		lambda.mul(kernel.totalScale).add(kernel.falseEasting).intoArray(xs,
+				offset);
+		phi.mul(kernel.totalScale).add(kernel.falseNorthing).intoArray(ys,
+				offset);
+	}
+
+	/**
+	 * Inverse transform to geographic degrees
+	 *
+	 * @param kernel
+	 *            transform kernel
+	 * @param x
+	 *            x coordinates
+	 * @param y
+	 *            y coordinates
+	 * @param xs
+	 *            longitude results
+	 * @param ys
+	 *            latitude results
+	 * @param offset
+	 *            results offset
+	 */
+	private static void inverse(TransformKernel kernel, DoubleVector x,
+			DoubleVector y, double[] xs, double[] ys, int offset) {
+		DoubleVector lambda = x.sub(kernel.falseEasting)
+				.div(kernel.totalScale);
+		DoubleVector phi = y.sub(kernel.falseNorthing).div(kernel.totalScale);
+		if (kernel.mercator) {
+			phi = DoubleVector.broadcast(SPECIES, TransformKernel.HALF_PI)
+					.sub(phi.neg().div(kernel.scaleFactor)
+							.lanewise(VectorOperators.EXP)
+							.lanewise(VectorOperators.ATAN).mul(2.0));
+			lambda = lambda.div(kernel.scaleFactor);
+		}
+		lambda.max(-Math.PI).min(Math.PI).mul(TransformKernel.RTD)
+				.intoArray(xs, offset);
+		phi.mul(TransformKernel.RTD).intoArray(ys, offset);
+	}
+
+}
@@ -0,0 +1,41 @@
+package mil.nga.proj;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared executor of asynchronous projection resolution and parallel
+ * transform workers, running each task on a new virtual thread.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionExecutors {
+
+	/**
+	 * Virtual thread per task executor, never shut down as virtual threads do
+	 * not keep the JVM alive
+	 */
+	private static final ExecutorService executor = Executors
+			.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Get the shared executor
+	 *
+	 * @return executor
+	 */
+	public static Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Check if the shared executor runs tasks on virtual threads
+	 *
+	 * @return true if virtual threads
+	 */
+	public static boolean isVirtual() {
+		return true;
+	}
+
+}
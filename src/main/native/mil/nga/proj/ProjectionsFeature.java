@@ -0,0 +1,52 @@
+package mil.nga.proj;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+
+/**
+ * GraalVM native image feature preloading the bundled authority projection
+ * properties into the image heap. Only the {@link ProjectionRetriever} holding
+ * the loaded properties is initialized at image build time. Used by the native
+ * build profile.
+ *
+ * @author osbornb
+ * @since 1.1.5
+ */
+public class ProjectionsFeature implements Feature {
+
+	/**
+	 * Authorities bundled as property files
+	 */
+	private static final String[] BUNDLED_AUTHORITIES = new String[] {
+			ProjectionConstants.AUTHORITY_EPSG,
+			ProjectionConstants.AUTHORITY_OGC,
+			ProjectionConstants.AUTHORITY_NONE };
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getDescription() {
+		return "Preloads the bundled authority projection properties";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterRegistration(AfterRegistrationAccess access) {
+		RuntimeClassInitialization
+				.initializeAtBuildTime(ProjectionRetriever.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeAnalysis(BeforeAnalysisAccess access) {
+		for (String authority : BUNDLED_AUTHORITIES) {
+			ProjectionRetriever.getOrCreateProjections(authority);
+		}
+	}
+
+}
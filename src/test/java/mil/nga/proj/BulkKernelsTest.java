@@ -0,0 +1,87 @@
+package mil.nga.proj;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Bulk Kernels Test. Also run on Java 17+ against the multi-release vector
+ * kernels with the jdk.incubator.vector module added, see the java17 profile.
+ *
+ * @author osbornb
+ */
+public class BulkKernelsTest {
+
+	/**
+	 * Test the bulk kernels against the scalar kernels
+	 */
+	@Test
+	public void testKernels() {
+
+		TestCase.assertEquals(Boolean.getBoolean("mil.nga.proj.vectorized"),
+				BulkKernels.isVectorized());
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		Projection plateCarree = ProjectionFactory.getProjection(32662);
+
+		ProjectionTransform toWebMercator = wgs84
+				.getTransformation(webMercator);
+		ProjectionTransform toPlateCarree = wgs84
+				.getTransformation(plateCarree);
+
+		// Geographic coordinates, not a multiple of the vector lanes
+		int count = 1001;
+		double[] geographic = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			geographic[i * 2] = -180.0 + 360.0 * i / (count - 1);
+			geographic[i * 2 + 1] = -85.0 + 170.0 * ((i * 37) % count)
+					/ (count - 1);
+		}
+
+		for (ProjectionTransform transform : new ProjectionTransform[] {
+				toWebMercator, toPlateCarree }) {
+
+			double[] projected = compare(transform, geographic, count);
+			compare(transform.getInverseTransformation(), projected, count);
+
+		}
+
+	}
+
+	/**
+	 * Compare the bulk kernel transform against the scalar kernel transform
+	 *
+	 * @param transform
+	 *            kernel projection transform
+	 * @param coordinates
+	 *            coordinates as [x, y, ...]
+	 * @param count
+	 *            number of coordinates
+	 * @return transformed coordinates
+	 */
+	private static double[] compare(ProjectionTransform transform,
+			double[] coordinates, int count) {
+
+		TransformKernel kernel = transform.getKernel();
+		TestCase.assertNotNull(kernel);
+
+		double[] scalar = new double[count * 2 + 2];
+		kernel.transform(coordinates, 0, scalar, 2, count);
+		double[] bulk = new double[count * 2 + 2];
+		BulkKernels.transform(kernel, coordinates, 0, bulk, 2, count);
+
+		for (int i = 2; i < bulk.length; i++) {
+			// Vector lanes may differ from the scalar math by a few ulps
+			TestCase.assertEquals(scalar[i], bulk[i],
+					Math.max(1e-9, Math.abs(scalar[i]) * 1e-14));
+		}
+
+		double[] transformed = new double[count * 2];
+		System.arraycopy(scalar, 2, transformed, 0, transformed.length);
+		return transformed;
+	}
+
+}
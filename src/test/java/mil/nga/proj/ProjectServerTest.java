@@ -0,0 +1,136 @@
+package mil.nga.proj;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Project Server Test
+ *
+ * @author osbornb
+ */
+public class ProjectServerTest {
+
+	/**
+	 * Clear the projections before each test
+	 */
+	@Before
+	public void clear() {
+		ProjectionFactory.clear();
+		ProjectionRetriever.clear();
+	}
+
+	/**
+	 * Test the project server and client
+	 *
+	 * @throws IOException
+	 *             upon server failure
+	 */
+	@Test
+	public void testServer() throws IOException {
+
+		double[] coordinates = new double[] { -110.0, 75.0, 95.0, -20.0 };
+		double[] expected = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR)
+				.transform(coordinates, 2);
+
+		try (ProjectServer server = new ProjectServer(0)) {
+			server.start();
+
+			try (ProjectClient client = new ProjectClient(server.getPort())) {
+
+				double[] transformed = client.transform("4326", "EPSG:3857",
+						coordinates, 2);
+				for (int i = 0; i < coordinates.length; i++) {
+					TestCase.assertEquals(expected[i], transformed[i], 0.0);
+				}
+
+				// Pipelined requests
+				for (int i = 0; i < 10; i++) {
+					client.send("4326", "EPSG:3857", coordinates, 2);
+				}
+				client.send("EPSG:3857", "4326", expected, 2);
+				client.flush();
+				for (int i = 0; i < 10; i++) {
+					TestCase.assertTrue(Arrays.equals(expected,
+							client.receive(coordinates.length)));
+				}
+				double[] inverse = client.receive(expected.length);
+				for (int i = 0; i < coordinates.length; i++) {
+					TestCase.assertEquals(coordinates[i], inverse[i],
+							0.0000001);
+				}
+
+				try {
+					client.transform("4326", "EPSG:3857",
+							new double[] { -110.0, 75.0, 95.0 }, 2);
+					TestCase.fail("Expected invalid value count error");
+				} catch (ProjectionException e) {
+					// pass
+				}
+				try {
+					client.transform("NOT:A_CODE", "EPSG:3857", coordinates,
+							2);
+					TestCase.fail("Expected invalid projection error");
+				} catch (ProjectionException e) {
+					// pass
+				}
+
+				// Connection remains usable after errors
+				TestCase.assertTrue(Arrays.equals(expected,
+						client.transform("4326", "EPSG:3857", coordinates, 2)));
+			}
+		}
+
+	}
+
+	/**
+	 * Test the project server transform cache bound
+	 *
+	 * @throws IOException
+	 *             upon server failure
+	 */
+	@Test
+	public void testServerTransforms() throws IOException {
+
+		double[] coordinates = new double[] { -110.0, 75.0, 95.0, -20.0 };
+
+		try (ProjectServer server = new ProjectServer(0, 2)) {
+			server.start();
+
+			try (ProjectClient client = new ProjectClient(server.getPort())) {
+
+				double[] expected = client.transform("4326", "EPSG:3857",
+						coordinates, 2);
+				client.transform("4326", "EPSG:3395", coordinates, 2);
+				client.transform("4326", "32632", coordinates, 2);
+				TestCase.assertEquals(2, server.getTransformCount());
+
+				// Evicted pairs are recreated
+				TestCase.assertTrue(Arrays.equals(expected,
+						client.transform("4326", "EPSG:3857", coordinates, 2)));
+				TestCase.assertEquals(2, server.getTransformCount());
+			}
+
+			// Connections reuse the released transforms of cached pairs
+			try (ProjectClient client = new ProjectClient(server.getPort())) {
+				client.transform("4326", "EPSG:3857", coordinates, 2);
+				TestCase.assertEquals(2, server.getTransformCount());
+			}
+		}
+
+		try {
+			new ProjectServer(0, 0).close();
+			TestCase.fail("Invalid max transforms did not fail");
+		} catch (IllegalArgumentException e) {
+			// pass
+		}
+
+	}
+
+}
@@ -1,7 +1,23 @@
 package mil.nga.proj;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -163,4 +179,507 @@ public class ProjectionFactoryTest {
 
 	}
 
+	/**
+	 * Test equivalent projections sharing a canonical coordinate reference
+	 * system
+	 */
+	@Test
+	public void testCanonicalCRS() {
+
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		Projection googleMercator = ProjectionFactory.getProjection(900913);
+		Projection custom = ProjectionFactory.getProjection(authority, code,
+				"+proj=merc +lon_0=0 +k=1 +x_0=0 +y_0=0 +a=6378137 +b=6378137 "
+						+ "+lat_ts=0 +nadgrids=@null +units=m +no_defs");
+		TestCase.assertSame(webMercator.getCrs().getProjection(),
+				googleMercator.getCrs().getProjection());
+		TestCase.assertSame(webMercator.getCrs().getDatum(),
+				custom.getCrs().getDatum());
+		TestCase.assertSame(webMercator.getCrs().getProjection(),
+				custom.getCrs().getProjection());
+		TestCase.assertEquals("EPSG:900913",
+				googleMercator.getCrs().getName());
+		TestCase.assertEquals("EPSG:3857", webMercator.getCrs().getName());
+		TestCase.assertFalse(webMercator.equals(googleMercator));
+
+		Projection wgs84 = ProjectionFactory.getProjection(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection crs84 = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_OGC, ProjectionConstants.OGC_CRS84);
+		TestCase.assertSame(wgs84.getCrs().getProjection(),
+				crs84.getCrs().getProjection());
+		TestCase.assertNotSame(wgs84.getCrs().getProjection(),
+				webMercator.getCrs().getProjection());
+
+		// Transform templates shared between equivalent projections
+		ProjectionTransform template = ProjectionFactory
+				.getTransformTemplate(wgs84, webMercator);
+		TestCase.assertNotNull(template);
+		TestCase.assertSame(template,
+				ProjectionFactory.getTransformTemplate(crs84, googleMercator));
+
+		// Uncached params projections are not interned
+		Projection utm = ProjectionFactory.getProjection(32632);
+		Projection utmParams = ProjectionFactory.getProjectionByParams(
+				"+units=m +datum=WGS84 +proj=utm +zone=32");
+		TestCase.assertNotSame(utm.getCrs().getProjection(),
+				utmParams.getCrs().getProjection());
+		TestCase.assertTrue(utm.isEquivalent(utmParams));
+		TestCase.assertNull(
+				ProjectionFactory.getTransformTemplate(wgs84, utmParams));
+
+		// Evicting all equivalent projections prunes the canonical system
+		ProjectionFactory.clear(ProjectionConstants.AUTHORITY_EPSG,
+				Arrays.asList(
+						String.valueOf(ProjectionConstants.EPSG_WEB_MERCATOR),
+						"900913"));
+		TestCase.assertFalse(ProjectionFactory.getProjections()
+				.hasProjection(ProjectionConstants.AUTHORITY_EPSG, "900913"));
+		Projection webMercator2 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertSame(webMercator.getCrs().getProjection(),
+				webMercator2.getCrs().getProjection());
+		ProjectionFactory.clear(ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		ProjectionFactory.clear(authority, code);
+		webMercator2 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertNotSame(webMercator.getCrs().getProjection(),
+				webMercator2.getCrs().getProjection());
+		TestCase.assertNotSame(template,
+				ProjectionFactory.getTransformTemplate(wgs84, webMercator2));
+
+		ProjectionFactory.clear();
+		webMercator2 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertNotSame(webMercator.getCrs(), webMercator2.getCrs());
+		TestCase.assertTrue(webMercator.isEquivalent(webMercator2));
+
+	}
+
+	/**
+	 * Test concurrent first retrieval of authority projections
+	 *
+	 * @throws Exception
+	 *             upon failure
+	 */
+	@Test
+	public void testConcurrentRetrieval() throws Exception {
+
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			@SuppressWarnings("unchecked")
+			Future<Properties>[] futures = new Future[threads];
+			for (int i = 0; i < threads; i++) {
+				futures[i] = executor.submit(() -> {
+					start.await();
+					return ProjectionRetriever.getOrCreateProjections(
+							ProjectionConstants.AUTHORITY_EPSG);
+				});
+			}
+			start.countDown();
+
+			Properties properties = futures[0].get();
+			TestCase.assertNotNull(properties);
+			TestCase.assertNotNull(properties.getProperty(
+					String.valueOf(ProjectionConstants.EPSG_WEB_MERCATOR)));
+			for (Future<Properties> future : futures) {
+				TestCase.assertSame(properties, future.get());
+			}
+			TestCase.assertSame(properties, ProjectionRetriever
+					.getProjections(ProjectionConstants.AUTHORITY_EPSG));
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+	/**
+	 * Test asynchronous projection retrieval
+	 */
+	@Test
+	public void testAsyncRetrieval() {
+
+		long[] codes = new long[] { ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR, 27700, 32633 };
+		int count = 64;
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Projection>[] futures = new CompletableFuture[count];
+		for (int i = 0; i < count; i++) {
+			futures[i] = ProjectionFactory
+					.getProjectionAsync(codes[i % codes.length]);
+		}
+		CompletableFuture.allOf(futures).join();
+
+		for (int i = 0; i < count; i++) {
+			Projection projection = futures[i].join();
+			TestCase.assertNotNull(projection);
+			TestCase.assertEquals(
+					ProjectionFactory.getProjection(codes[i % codes.length]),
+					projection);
+		}
+
+		TestCase.assertEquals(
+				ProjectionFactory
+						.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR),
+				ProjectionFactory
+						.getProjectionAsync(ProjectionConstants.AUTHORITY_EPSG,
+								String.valueOf(
+										ProjectionConstants.EPSG_WEB_MERCATOR))
+						.join());
+
+	}
+
+	/**
+	 * Test the projection metadata catalog
+	 */
+	@Test
+	public void testCatalog() {
+
+		List<ProjectionMetadata> metadata = ProjectionCatalog
+				.getMetadata(ProjectionConstants.AUTHORITY_EPSG);
+		TestCase.assertEquals(
+				ProjectionRetriever
+						.getProjections(ProjectionConstants.AUTHORITY_EPSG)
+						.size(),
+				metadata.size());
+		TestCase.assertTrue(metadata.size() > 4000);
+		for (int i = 1; i < metadata.size(); i++) {
+			TestCase.assertTrue(
+					Long.parseLong(metadata.get(i - 1).getCode()) < Long
+							.parseLong(metadata.get(i).getCode()));
+		}
+		TestCase.assertNull(ProjectionFactory
+				.getProjections(ProjectionConstants.AUTHORITY_EPSG));
+
+		ProjectionMetadata wgs84 = ProjectionCatalog
+				.getMetadata(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		TestCase.assertEquals(ProjectionConstants.AUTHORITY_EPSG,
+				wgs84.getAuthority());
+		TestCase.assertEquals("4326", wgs84.getCode());
+		TestCase.assertEquals("longlat", wgs84.getProjectionName());
+		TestCase.assertEquals("WGS84", wgs84.getDatum());
+		TestCase.assertEquals("WGS84", wgs84.getEllipsoid());
+		TestCase.assertEquals(ProjectionMetadata.UNITS_DEGREES,
+				wgs84.getUnits());
+		TestCase.assertTrue(wgs84.isGeographic());
+
+		ProjectionMetadata webMercator = ProjectionCatalog.getMetadata(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertEquals("merc", webMercator.getProjectionName());
+		TestCase.assertNull(webMercator.getDatum());
+		TestCase.assertNull(webMercator.getEllipsoid());
+		TestCase.assertEquals(ProjectionMetadata.UNITS_METRES,
+				webMercator.getUnits());
+		TestCase.assertFalse(webMercator.isGeographic());
+
+		ProjectionMetadata britishNationalGrid = ProjectionCatalog
+				.getMetadata(27700);
+		TestCase.assertEquals("tmerc",
+				britishNationalGrid.getProjectionName());
+		TestCase.assertEquals("airy", britishNationalGrid.getEllipsoid());
+		TestCase.assertSame(webMercator.getUnits(),
+				britishNationalGrid.getUnits());
+
+		TestCase.assertFalse(ProjectionCatalog.hasCode(authority,
+				String.valueOf(code)));
+		ProjectionRetriever.setProjection(authority, code,
+				"+proj=utm +zone=33 +datum=NAD83 +units=us-ft +no_defs");
+		ProjectionMetadata custom = ProjectionCatalog.getMetadata(authority,
+				code);
+		TestCase.assertEquals(authority.toUpperCase(), custom.getAuthority());
+		TestCase.assertEquals("utm", custom.getProjectionName());
+		TestCase.assertEquals("NAD83", custom.getDatum());
+		TestCase.assertEquals("GRS80", custom.getEllipsoid());
+		TestCase.assertEquals("us-ft", custom.getUnits());
+		TestCase.assertEquals(1, ProjectionCatalog.count(authority));
+
+		ProjectionRetriever.clear(authority, code);
+		TestCase.assertFalse(ProjectionCatalog.hasCode(authority,
+				String.valueOf(code)));
+		TestCase.assertEquals(0, ProjectionCatalog.count(authority));
+
+	}
+
+	/**
+	 * Test the projection area of use index
+	 */
+	@Test
+	public void testAreaIndex() {
+
+		String utm = "PROJCRS[\"WGS 84 / UTM zone 33N\",BASEGEOGCRS[\"WGS 84\","
+				+ "DATUM[\"World Geodetic System 1984\",ELLIPSOID[\"WGS 84\",6378137,298.257223563,LENGTHUNIT[\"metre\",1]]],"
+				+ "PRIMEM[\"Greenwich\",0,ANGLEUNIT[\"degree\",0.0174532925199433]],ID[\"EPSG\",4326]],"
+				+ "CONVERSION[\"UTM zone 33N\",METHOD[\"Transverse Mercator\",ID[\"EPSG\",9807]],"
+				+ "PARAMETER[\"Latitude of natural origin\",0,ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "PARAMETER[\"Longitude of natural origin\",15,ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "PARAMETER[\"Scale factor at natural origin\",0.9996,SCALEUNIT[\"unity\",1]],"
+				+ "PARAMETER[\"False easting\",500000,LENGTHUNIT[\"metre\",1]],"
+				+ "PARAMETER[\"False northing\",0,LENGTHUNIT[\"metre\",1]]],"
+				+ "CS[Cartesian,2],AXIS[\"(E)\",east,ORDER[1],LENGTHUNIT[\"metre\",1]],"
+				+ "AXIS[\"(N)\",north,ORDER[2],LENGTHUNIT[\"metre\",1]],"
+				+ "USAGE[SCOPE[\"Engineering survey, topographic mapping.\"],"
+				+ "AREA[\"Between 12E and 18E, northern hemisphere\"],BBOX[0,12,84,18]],"
+				+ "ID[\"EPSG\",32633]]";
+		String world = "GEOGCRS[\"WGS 84\",DATUM[\"World Geodetic System 1984\","
+				+ "ELLIPSOID[\"WGS 84\",6378137,298.257223563,LENGTHUNIT[\"metre\",1]]],"
+				+ "PRIMEM[\"Greenwich\",0,ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "CS[ellipsoidal,2],AXIS[\"geodetic latitude (Lat)\",north,ORDER[1],ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "AXIS[\"geodetic longitude (Lon)\",east,ORDER[2],ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "USAGE[SCOPE[\"Horizontal component of 3D system.\"],AREA[\"World.\"],BBOX[-90,-180,90,180]],"
+				+ "ID[\"EPSG\",4326]]";
+		String antimeridian = "GEOGCRS[\"Antimeridian\",DATUM[\"World Geodetic System 1984\","
+				+ "ELLIPSOID[\"WGS 84\",6378137,298.257223563,LENGTHUNIT[\"metre\",1]]],"
+				+ "PRIMEM[\"Greenwich\",0,ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "CS[ellipsoidal,2],AXIS[\"geodetic latitude (Lat)\",north,ORDER[1],ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "AXIS[\"geodetic longitude (Lon)\",east,ORDER[2],ANGLEUNIT[\"degree\",0.0174532925199433]],"
+				+ "USAGE[SCOPE[\"Testing.\"],AREA[\"Antimeridian.\"],BBOX[-20,170,-10,-170]],"
+				+ "ID[\"" + authority + "\"," + code + "]]";
+
+		Projection utmProjection = ProjectionFactory
+				.getProjectionByDefinition(utm);
+		Projection worldProjection = ProjectionFactory
+				.getProjectionByDefinition(world);
+		Projection antimeridianProjection = ProjectionFactory
+				.getProjectionByDefinition(antimeridian);
+		ProjectionFactory.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		ProjectionAreaIndex index = ProjectionAreaIndex.fromFactory();
+		TestCase.assertEquals(3, index.size());
+		TestCase.assertEquals(Arrays.asList(antimeridianProjection,
+				utmProjection, worldProjection), index.getProjections());
+
+		TestCase.assertEquals(Arrays.asList(utmProjection, worldProjection),
+				index.covering(15.0, 45.0));
+		TestCase.assertEquals(Arrays.asList(worldProjection),
+				index.covering(-77.0, 38.9));
+		TestCase.assertEquals(
+				Arrays.asList(antimeridianProjection, worldProjection),
+				index.covering(179.5, -15.0));
+		TestCase.assertEquals(
+				Arrays.asList(antimeridianProjection, worldProjection),
+				index.covering(-175.0, -15.0));
+		TestCase.assertTrue(index.covering(200.0, 0.0).isEmpty());
+
+		TestCase.assertEquals(Arrays.asList(utmProjection, worldProjection),
+				index.covering(13.0, 40.0, 17.0, 60.0));
+		TestCase.assertEquals(Arrays.asList(worldProjection),
+				index.covering(10.0, 40.0, 17.0, 60.0));
+		TestCase.assertEquals(Arrays.asList(utmProjection, worldProjection),
+				index.intersecting(10.0, 40.0, 13.0, 60.0));
+
+		double[] coordinates = new double[] { 15.0, 45.0, 16.0, 70.0, -77.0,
+				38.9 };
+		List<List<Projection>> each = index.coveringEach(coordinates);
+		TestCase.assertEquals(3, each.size());
+		TestCase.assertEquals(index.covering(15.0, 45.0), each.get(0));
+		TestCase.assertEquals(index.covering(16.0, 70.0), each.get(1));
+		TestCase.assertEquals(index.covering(-77.0, 38.9), each.get(2));
+		TestCase.assertEquals(Arrays.asList(worldProjection),
+				index.coveringAll(coordinates));
+		TestCase.assertEquals(Arrays.asList(utmProjection, worldProjection),
+				index.coveringAll(Arrays.copyOf(coordinates, 4)));
+
+		ProjectionAreaIndex fineIndex = new ProjectionAreaIndex(
+				index.getProjections(), 0.5);
+		TestCase.assertEquals(index.covering(15.0, 45.0),
+				fineIndex.covering(15.0, 45.0));
+		TestCase.assertEquals(index.covering(179.5, -15.0),
+				fineIndex.covering(179.5, -15.0));
+
+	}
+
+	/**
+	 * Test the flight recorder events
+	 * 
+	 * @throws IOException
+	 *             upon recording failure
+	 */
+	@Test
+	public void testFlightRecorder() throws IOException {
+
+		List<RecordedEvent> events = new ArrayList<>();
+
+		File file = File.createTempFile("projections", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(ResolutionEvent.NAME);
+			recording.enable(CRSConversionEvent.NAME);
+			recording.enable(TransformCreationEvent.NAME);
+			recording.enable(BulkTransformEvent.NAME);
+			recording.start();
+
+			Projection wgs84 = ProjectionFactory.getProjection(
+					ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+			ProjectionFactory.getProjection(
+					ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+			ProjectionFactory.getProjectionByDefinition(
+					"GEOGCS[\"WGS 84\",DATUM[\"WGS_1984\",SPHEROID[\"WGS 84\",6378137,298.257223563]],"
+							+ "PRIMEM[\"Greenwich\",0],UNIT[\"degree\",0.0174532925199433]]");
+			ProjectionTransform transform = wgs84.getTransformation(
+					ProjectionConstants.EPSG_WEB_MERCATOR);
+			transform.transform(new double[] { -110.0, 75.0, 95.0, -20.0 },
+					2);
+
+			recording.stop();
+			recording.dump(file.toPath());
+			events.addAll(RecordingFile.readAllEvents(file.toPath()));
+		} finally {
+			file.delete();
+		}
+
+		int resolutions = 0;
+		int cacheHits = 0;
+		int conversions = 0;
+		int creations = 0;
+		int batches = 0;
+		for (RecordedEvent event : events) {
+			switch (event.getEventType().getName()) {
+			case ResolutionEvent.NAME:
+				resolutions++;
+				if (event.getBoolean("cacheHit")) {
+					cacheHits++;
+					TestCase.assertEquals(
+							ProjectionFactoryType.CACHE.name(),
+							event.getString("type"));
+				}
+				break;
+			case CRSConversionEvent.NAME:
+				conversions++;
+				break;
+			case TransformCreationEvent.NAME:
+				creations++;
+				TestCase.assertEquals("EPSG:4326", event.getString("from"));
+				TestCase.assertEquals("EPSG:3857", event.getString("to"));
+				break;
+			case BulkTransformEvent.NAME:
+				batches++;
+				TestCase.assertEquals(2, event.getInt("dimension"));
+				TestCase.assertEquals(2, event.getInt("count"));
+				break;
+			default:
+			}
+		}
+		TestCase.assertTrue(resolutions >= 4);
+		TestCase.assertTrue(cacheHits >= 1);
+		TestCase.assertTrue(conversions >= 1);
+		// The shared transform template may be created with the transform
+		TestCase.assertTrue(creations >= 1 && creations <= 2);
+		TestCase.assertEquals(1, batches);
+
+	}
+
+	/**
+	 * Test watched projection directory reloads
+	 *
+	 * @throws Exception
+	 *             upon failure
+	 */
+	@Test
+	public void testWatcher() throws Exception {
+
+		File directory = Files.createTempDirectory("projections").toFile();
+		File file = new File(directory,
+				ProjectionRetriever.propertyFileName(authority));
+
+		String mercator = "+proj=merc +lon_0=0 +k=1 +x_0=0 +y_0=0 "
+				+ "+datum=WGS84 +units=m +no_defs";
+		String utm = "+proj=utm +zone=32 +datum=WGS84 +units=m +no_defs";
+		String utm33 = "+proj=utm +zone=33 +datum=WGS84 +units=m +no_defs";
+
+		writeProjections(file, "1=" + mercator, "2=" + utm);
+
+		try (ProjectionWatcher watcher = new ProjectionWatcher(directory)) {
+
+			watcher.loadAll();
+			Projection projection1 = ProjectionFactory.getProjection(authority,
+					1);
+			Projection projection2 = ProjectionFactory.getProjection(authority,
+					2);
+			TestCase.assertEquals(9.0, centralMeridian(projection2), 1e-9);
+
+			writeProjections(file, "1=" + mercator, "2=" + utm33,
+					"3=" + utm);
+			Set<String> changed = watcher.update(file);
+			TestCase.assertEquals(2, changed.size());
+			TestCase.assertTrue(changed.contains("2"));
+			TestCase.assertTrue(changed.contains("3"));
+
+			TestCase.assertSame(projection1,
+					ProjectionFactory.getProjection(authority, 1));
+			Projection reloaded2 = ProjectionFactory.getProjection(authority,
+					2);
+			TestCase.assertNotSame(projection2, reloaded2);
+			TestCase.assertEquals(15.0, centralMeridian(reloaded2), 1e-9);
+			TestCase.assertEquals(9.0, centralMeridian(
+					ProjectionFactory.getProjection(authority, 3)), 1e-9);
+
+			// Reloading all files reverts deleted files
+			file.delete();
+			watcher.loadAll();
+			try {
+				ProjectionFactory.getProjection(authority, 3);
+				TestCase.fail("Deleted projection file code was not evicted");
+			} catch (ProjectionException e) {
+				// pass
+			}
+			writeProjections(file, "1=" + mercator, "2=" + utm33,
+					"3=" + utm);
+			watcher.loadAll();
+			TestCase.assertEquals(9.0, centralMeridian(
+					ProjectionFactory.getProjection(authority, 3)), 1e-9);
+
+			// Watched changes
+			watcher.start();
+			writeProjections(file, "1=" + utm, "2=" + utm33, "3=" + utm);
+			long timeout = System.currentTimeMillis() + 20000;
+			while (centralMeridian(
+					ProjectionFactory.getProjection(authority, 1)) == 0.0
+					&& System.currentTimeMillis() < timeout) {
+				Thread.sleep(50);
+			}
+			TestCase.assertEquals(9.0, centralMeridian(
+					ProjectionFactory.getProjection(authority, 1)), 1e-9);
+
+		} finally {
+			file.delete();
+			directory.delete();
+		}
+
+	}
+
+	/**
+	 * Get the central meridian of the projection in degrees
+	 *
+	 * @param projection
+	 *            projection
+	 * @return central meridian
+	 */
+	private static double centralMeridian(Projection projection) {
+		return projection.getCrs().getProjection()
+				.getProjectionLongitudeDegrees();
+	}
+
+	/**
+	 * Atomically replace the file with the projection property lines
+	 *
+	 * @param file
+	 *            properties file
+	 * @param lines
+	 *            property lines
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private static void writeProjections(File file, String... lines)
+			throws IOException {
+		File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.write(temp.toPath(), Arrays.asList(lines));
+		Files.move(temp.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
 }
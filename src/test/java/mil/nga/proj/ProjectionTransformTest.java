@@ -0,0 +1,1323 @@
+package mil.nga.proj;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.proj4j.ProjCoordinate;
+
+import mil.nga.crs.wkt.CRSReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Projection Transform Test
+ *
+ * @author osbornb
+ */
+public class ProjectionTransformTest {
+
+	/**
+	 * Clear the projections before each test
+	 */
+	@Before
+	public void clear() {
+		ProjectionFactory.clear();
+		ProjectionRetriever.clear();
+	}
+
+	/**
+	 * Test bulk two dimensional transforms against single coordinate
+	 * transforms
+	 */
+	@Test
+	public void testBulk() {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		double[] coordinates = new double[] { -110.0, 75.0, 95.0, -20.0, 0.0,
+				0.0, 179.9, 85.0 };
+
+		double[] transformed = transform.transform(coordinates, 2);
+		TestCase.assertEquals(coordinates.length, transformed.length);
+
+		for (int i = 0; i < coordinates.length; i += 2) {
+			double[] expected = transform.transform(coordinates[i],
+					coordinates[i + 1]);
+			TestCase.assertEquals(expected[0], transformed[i], 0.0);
+			TestCase.assertEquals(expected[1], transformed[i + 1], 0.0);
+		}
+
+		// In place with offsets
+		double[] inPlace = new double[coordinates.length + 2];
+		System.arraycopy(coordinates, 0, inPlace, 2, coordinates.length);
+		transform.transform(inPlace, 2, inPlace, 2, 2,
+				coordinates.length / 2);
+		for (int i = 0; i < transformed.length; i++) {
+			TestCase.assertEquals(transformed[i], inPlace[i + 2], 0.0);
+		}
+
+		try {
+			transform.transform(coordinates, 4);
+			TestCase.fail("Invalid dimension did not fail");
+		} catch (IllegalArgumentException e) {
+			// pass
+		}
+
+	}
+
+	/**
+	 * Test heap and direct buffer transforms
+	 */
+	@Test
+	public void testBuffers() {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		double[] coordinates = new double[] { -110.0, 75.0, 95.0, -20.0, 0.0,
+				0.0, 179.9, 85.0 };
+		double[] expected = transform.transform(coordinates, 2);
+
+		// Heap buffer in place from the position to the limit
+		DoubleBuffer heap = DoubleBuffer.allocate(coordinates.length + 2);
+		heap.put(7.0).put(coordinates).put(8.0);
+		heap.position(1).limit(coordinates.length + 1);
+		transform.transform(heap, 2);
+		TestCase.assertEquals(coordinates.length + 1, heap.position());
+		heap.clear();
+		TestCase.assertEquals(7.0, heap.get(0), 0.0);
+		TestCase.assertEquals(8.0, heap.get(coordinates.length + 1), 0.0);
+		for (int i = 0; i < expected.length; i++) {
+			TestCase.assertEquals(expected[i], heap.get(i + 1), 0.0);
+		}
+
+		// Direct buffer with a stride carrying an extra value per coordinate
+		int stride = 3;
+		int count = coordinates.length / 2;
+		DoubleBuffer direct = ByteBuffer
+				.allocateDirect(count * stride * Double.BYTES)
+				.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		TestCase.assertTrue(direct.isDirect());
+		for (int i = 0; i < count; i++) {
+			direct.put(coordinates[i * 2]).put(coordinates[i * 2 + 1])
+					.put(i);
+		}
+		direct.flip();
+		transform.transform(direct, 2, stride);
+		TestCase.assertFalse(direct.hasRemaining());
+		for (int i = 0; i < count; i++) {
+			TestCase.assertEquals(expected[i * 2], direct.get(i * stride), 0.0);
+			TestCase.assertEquals(expected[i * 2 + 1],
+					direct.get(i * stride + 1), 0.0);
+			TestCase.assertEquals(i, direct.get(i * stride + 2), 0.0);
+		}
+
+		// Source to destination with heights
+		ProjectionTransform transform3D = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM, 27700);
+		double[] coordinates3D = new double[] { -1.5, 52.5, 100.0, 0.1, 51.5,
+				-25.0 };
+		double[] expected3D = transform3D.transform(coordinates3D, 3);
+		DoubleBuffer src = DoubleBuffer.wrap(coordinates3D);
+		DoubleBuffer dst = ByteBuffer
+				.allocateDirect(coordinates3D.length * Double.BYTES)
+				.asDoubleBuffer();
+		transform3D.transform(src, dst, 3, 3);
+		TestCase.assertFalse(src.hasRemaining());
+		TestCase.assertFalse(dst.hasRemaining());
+		for (int i = 0; i < expected3D.length; i++) {
+			TestCase.assertEquals(expected3D[i], dst.get(i), 0.0);
+		}
+
+		try {
+			transform.transform(DoubleBuffer.wrap(coordinates),
+					DoubleBuffer.allocate(coordinates.length - 1), 2, 2);
+			TestCase.fail("Destination overflow did not fail");
+		} catch (BufferOverflowException e) {
+			// pass
+		}
+
+		try {
+			transform.transform(DoubleBuffer.wrap(coordinates), 2, 1);
+			TestCase.fail("Invalid stride did not fail");
+		} catch (IllegalArgumentException e) {
+			// pass
+		}
+
+	}
+
+	/**
+	 * Test lazy stream and spliterator transforms
+	 */
+	@Test
+	public void testStreams() {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		int count = 1000;
+		double[] coordinates = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			coordinates[i * 2] = -180.0 + i * 0.36;
+			coordinates[i * 2 + 1] = -85.0 + i * 0.17;
+		}
+		double[] expected = transform.transform(coordinates, 2);
+
+		double[] sequential = ProjectionStreams
+				.stream(transform, coordinates, 2, false).toArray();
+		double[] parallel = ProjectionStreams
+				.stream(transform, coordinates, 2, true).toArray();
+		TestCase.assertEquals(expected.length, sequential.length);
+		TestCase.assertEquals(expected.length, parallel.length);
+		for (int i = 0; i < expected.length; i++) {
+			TestCase.assertEquals(expected[i], sequential[i], 0.0);
+			TestCase.assertEquals(expected[i], parallel[i], 0.0);
+		}
+
+		ProjectionSpliterator spliterator = new ProjectionSpliterator(
+				transform, coordinates, 2, 64);
+		TestCase.assertEquals(16, spliterator.estimateSize());
+		Spliterator<double[]> split = spliterator.trySplit();
+		TestCase.assertNotNull(split);
+		TestCase.assertEquals(8, split.estimateSize());
+		TestCase.assertEquals(8, spliterator.estimateSize());
+		split.tryAdvance((block) -> {
+			TestCase.assertEquals(128, block.length);
+			TestCase.assertEquals(expected[0], block[0], 0.0);
+		});
+		spliterator.tryAdvance((block) -> TestCase
+				.assertEquals(expected[8 * 128], block[0], 0.0));
+
+		List<double[]> mapped = Stream
+				.of(new double[] { -110.0, 75.0 },
+						new double[] { 95.0, -20.0, 10.0 })
+				.parallel().map(ProjectionStreams.map(transform))
+				.collect(Collectors.toList());
+		double[] first = transform.transform(-110.0, 75.0);
+		TestCase.assertEquals(first[0], mapped.get(0)[0], 0.0);
+		TestCase.assertEquals(first[1], mapped.get(0)[1], 0.0);
+		TestCase.assertEquals(3, mapped.get(1).length);
+
+	}
+
+	/**
+	 * Test the reactive stream processor with backpressure
+	 *
+	 * @throws InterruptedException
+	 *             upon interruption
+	 */
+	@Test
+	public void testProcessor() throws InterruptedException {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		int count = 100;
+		double[] batch = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			batch[i * 2] = -170.0 + i * 3.4;
+			batch[i * 2 + 1] = -80.0 + i * 1.6;
+		}
+		double[] expected = transform.transform(batch, 2);
+
+		ProjectionProcessor processor = new ProjectionProcessor(transform, 2,
+				4, 10);
+
+		List<double[]> received = new CopyOnWriteArrayList<>();
+		CountDownLatch first = new CountDownLatch(1);
+		CountDownLatch complete = new CountDownLatch(1);
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+		processor.subscribe(new Flow.Subscriber<double[]>() {
+
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription[0] = s;
+				s.request(1);
+			}
+
+			@Override
+			public void onNext(double[] item) {
+				received.add(item);
+				first.countDown();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				complete.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				complete.countDown();
+			}
+
+		});
+
+		try (SubmissionPublisher<double[]> publisher =
+				new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			publisher.submit(batch);
+			publisher.submit(batch);
+			publisher.submit(batch);
+
+			TestCase.assertTrue(first.await(10, TimeUnit.SECONDS));
+			Thread.sleep(100);
+			// Only the requested batch is delivered
+			TestCase.assertEquals(1, received.size());
+
+			subscription[0].request(2);
+		}
+
+		TestCase.assertTrue(complete.await(10, TimeUnit.SECONDS));
+		TestCase.assertEquals(3, received.size());
+		for (double[] transformed : received) {
+			TestCase.assertEquals(expected.length, transformed.length);
+			for (int i = 0; i < expected.length; i++) {
+				TestCase.assertEquals(expected[i], transformed[i], 0.0);
+			}
+		}
+
+		// Invalid requests terminate with a single error, cancelling upstream
+		ProjectionProcessor invalid = new ProjectionProcessor(transform, 2);
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		invalid.subscribe(new Flow.Subscriber<double[]>() {
+
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				s.request(0);
+				s.request(-1);
+			}
+
+			@Override
+			public void onNext(double[] item) {
+				TestCase.fail("Unexpected batch");
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				errors.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				TestCase.fail("Unexpected completion");
+			}
+
+		});
+		TestCase.assertEquals(1, errors.size());
+		TestCase.assertTrue(errors.get(0) instanceof IllegalArgumentException);
+		boolean[] cancelled = new boolean[1];
+		invalid.onSubscribe(new Flow.Subscription() {
+
+			@Override
+			public void request(long n) {
+				TestCase.fail("Unexpected request");
+			}
+
+			@Override
+			public void cancel() {
+				cancelled[0] = true;
+			}
+
+		});
+		TestCase.assertTrue(cancelled[0]);
+		invalid.onComplete();
+		TestCase.assertEquals(1, errors.size());
+
+	}
+
+	/**
+	 * Test bulk tile matrix bounds
+	 */
+	@Test
+	public void testTileBounds() {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WEB_MERCATOR,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+
+		double origin = ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH;
+		double tileSize = origin * 2;
+
+		TestCase.assertEquals(85,
+				ProjectionTiles.tileCount(0, 3, 0, 0, 0, 0));
+		double[] bounds = ProjectionTiles.tileBounds(transform, -origin,
+				origin, tileSize, tileSize, 0, 3, 0, 0, 0, 0, false);
+		TestCase.assertEquals(85 * 4, bounds.length);
+
+		// Overflowing tile counts
+		try {
+			ProjectionTiles.tileCount(0, 30, 0, Integer.MAX_VALUE, 0,
+					Integer.MAX_VALUE);
+			TestCase.fail("Tile count overflow did not fail");
+		} catch (IllegalArgumentException e) {
+			// pass
+		}
+		try {
+			ProjectionTiles.tileBounds(transform, -origin, origin, tileSize,
+					tileSize, 0, 0, 0, 1L << 20, 0, 1L << 20, false);
+			TestCase.fail("Too many tiles did not fail");
+		} catch (IllegalArgumentException e) {
+			// pass
+		}
+
+		int index = 0;
+		for (int zoom = 0; zoom <= 3; zoom++) {
+			int tiles = 1 << zoom;
+			double zoomTileSize = tileSize / tiles;
+			for (int row = 0; row < tiles; row++) {
+				for (int column = 0; column < tiles; column++) {
+					double minX = -origin + column * zoomTileSize;
+					double maxY = origin - row * zoomTileSize;
+					double[] expected = transform.transform(minX,
+							maxY - zoomTileSize, minX + zoomTileSize, maxY);
+					for (int i = 0; i < 4; i++) {
+						TestCase.assertEquals(expected[i], bounds[index++],
+								1e-9);
+					}
+				}
+			}
+		}
+		TestCase.assertEquals(-180.0, bounds[0], 1e-9);
+		TestCase.assertEquals(180.0, bounds[2], 1e-9);
+
+		// Column and row range with parallel transforms
+		double[] range = ProjectionTiles.tileBounds(transform, -origin,
+				origin, tileSize / 64, tileSize / 64, 10, 40, 5, 60, false);
+		double[] parallel = ProjectionTiles.tileBounds(transform, -origin,
+				origin, tileSize / 64, tileSize / 64, 10, 40, 5, 60, true);
+		TestCase.assertEquals(31 * 56 * 4, range.length);
+		for (int i = 0; i < range.length; i++) {
+			TestCase.assertEquals(range[i], parallel[i], 0.0);
+		}
+		double[] expected = transform.transform(-origin + 40 * tileSize / 64,
+				origin - 61 * tileSize / 64, -origin + 41 * tileSize / 64,
+				origin - 60 * tileSize / 64);
+		for (int i = 0; i < 4; i++) {
+			TestCase.assertEquals(expected[i], range[range.length - 4 + i],
+					1e-9);
+		}
+
+	}
+
+	/**
+	 * Test transforms quantized into integer tile space
+	 */
+	@Test
+	public void testQuantize() {
+
+		ProjectionTransform transform = ProjectionTransform.create(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		double half = ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH;
+		double maxLatitude = ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE;
+
+		double[] coordinates = new double[] { -180.0, maxLatitude, 0.0, 0.0,
+				0.0, 0.0, 0.00001, 0.00001, 90.0, 0.0, 180.0, -maxLatitude };
+
+		int[] tile = ProjectionTiles.quantize(transform, coordinates, -half,
+				-half, half, half, 4096, false);
+		TestCase.assertEquals(coordinates.length, tile.length);
+		TestCase.assertEquals(0, tile[0]);
+		TestCase.assertEquals(0, tile[1]);
+		TestCase.assertEquals(2048, tile[2]);
+		TestCase.assertEquals(2048, tile[3]);
+		TestCase.assertEquals(3072, tile[8]);
+		TestCase.assertEquals(2048, tile[9]);
+		TestCase.assertEquals(4096, tile[10]);
+		TestCase.assertEquals(4096, tile[11]);
+
+		int[] deduplicated = ProjectionTiles.quantize(transform, coordinates,
+				-half, -half, half, half, 4096, true);
+		TestCase.assertEquals(8, deduplicated.length);
+		TestCase.assertEquals(2048, deduplicated[2]);
+		TestCase.assertEquals(3072, deduplicated[4]);
+
+		// Quadrant tile with a destination offset
+		int[] dst = new int[14];
+		int count = ProjectionTiles.quantize(transform, coordinates, 2, 4,
+				0.0, 0.0, half, half, 4096, true, dst, 2);
+		TestCase.assertEquals(2, count);
+		TestCase.assertEquals(0, dst[2]);
+		TestCase.assertEquals(4096, dst[3]);
+		TestCase.assertEquals(2048, dst[4]);
+		TestCase.assertEquals(4096, dst[5]);
+
+		// Saturated far outside vertices and dropped failed vertices
+		double[] outside = new double[] { 180.0, 0.0, Double.NaN, 0.0, -180.0,
+				0.0, 0.0, 0.0 };
+		double tileWidth = half / (1 << 20);
+		int[] saturated = ProjectionTiles.quantize(transform, outside, 0.0,
+				0.0, tileWidth, tileWidth, 4096, false);
+		TestCase.assertEquals(6, saturated.length);
+		TestCase.assertEquals(Integer.MAX_VALUE, saturated[0]);
+		TestCase.assertEquals(4096, saturated[1]);
+		TestCase.assertEquals(-Integer.MAX_VALUE, saturated[2]);
+		long[] failures = new long[1];
+		count = ProjectionTiles.quantize(transform, outside, 0, 4, 0.0, 0.0,
+				tileWidth, tileWidth, 4096, 64, false, dst, 0, failures);
+		TestCase.assertEquals(3, count);
+		TestCase.assertEquals(1L << 1, failures[0]);
+		TestCase.assertEquals(4096 + 64, dst[0]);
+		TestCase.assertEquals(4096, dst[1]);
+		TestCase.assertEquals(-64, dst[2]);
+		TestCase.assertEquals(4096, dst[3]);
+		TestCase.assertEquals(0, dst[4]);
+		TestCase.assertEquals(4096, dst[5]);
+
+	}
+
+	/**
+	 * Test bulk transform kernels
+	 */
+	@Test
+	public void testKernels() {
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		Projection plateCarree = ProjectionFactory.getProjection(32662);
+		Projection worldMercator = ProjectionFactory.getProjection(3395);
+
+		ProjectionTransform toWebMercator = wgs84
+				.getTransformation(webMercator);
+		ProjectionTransform fromWebMercator = toWebMercator
+				.getInverseTransformation();
+		ProjectionTransform toPlateCarree = wgs84
+				.getTransformation(plateCarree);
+		ProjectionTransform fromPlateCarree = toPlateCarree
+				.getInverseTransformation();
+
+		TestCase.assertTrue(toWebMercator.isKernel());
+		TestCase.assertTrue(fromWebMercator.isKernel());
+		TestCase.assertTrue(toPlateCarree.isKernel());
+		TestCase.assertTrue(fromPlateCarree.isKernel());
+		TestCase.assertFalse(wgs84.getTransformation(worldMercator).isKernel());
+		TestCase.assertFalse(
+				wgs84.getTransformation(ProjectionConstants.AUTHORITY_EPSG,
+						27700).isKernel());
+		TestCase.assertFalse(wgs84.getTransformation(wgs84).isKernel());
+
+		int count = 1001;
+		double[] coordinates = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			coordinates[i * 2] = -200.0 + i * 0.4;
+			coordinates[i * 2 + 1] = -89.0 + i * 0.178;
+		}
+
+		for (ProjectionTransform transform : new ProjectionTransform[] {
+				toWebMercator, toPlateCarree }) {
+			double[] projected = transform.transform(coordinates, 2);
+			ProjectionTransform inverse = transform
+					.getInverseTransformation();
+			double[] geographic = inverse.transform(projected, 2);
+			for (int i = 0; i < coordinates.length; i += 2) {
+				double[] expected = transform.transform(coordinates[i],
+						coordinates[i + 1]);
+				TestCase.assertEquals(expected[0], projected[i], 1e-6);
+				TestCase.assertEquals(expected[1], projected[i + 1], 1e-6);
+				double[] expectedInverse = inverse.transform(projected[i],
+						projected[i + 1]);
+				TestCase.assertEquals(expectedInverse[0], geographic[i],
+						1e-9);
+				TestCase.assertEquals(expectedInverse[1], geographic[i + 1],
+						1e-9);
+			}
+		}
+
+	}
+
+	/**
+	 * Test UTM zone batching transforms
+	 */
+	@Test
+	public void testUtmZones() {
+
+		TestCase.assertEquals(33, UtmZoneTransform.zone(15.0, 45.0));
+		TestCase.assertEquals(1, UtmZoneTransform.zone(-180.0, 0.0));
+		TestCase.assertEquals(60, UtmZoneTransform.zone(179.9, 0.0));
+		TestCase.assertEquals(1, UtmZoneTransform.zone(180.0, 0.0));
+		TestCase.assertEquals(31, UtmZoneTransform.zone(2.0, 60.0));
+		TestCase.assertEquals(32, UtmZoneTransform.zone(5.0, 60.0));
+		TestCase.assertEquals(31, UtmZoneTransform.zone(5.0, 75.0));
+		TestCase.assertEquals(33, UtmZoneTransform.zone(10.0, 75.0));
+		TestCase.assertEquals(35, UtmZoneTransform.zone(25.0, 75.0));
+		TestCase.assertEquals(37, UtmZoneTransform.zone(40.0, 75.0));
+
+		TestCase.assertEquals(32633, UtmZoneTransform.epsg(15.0, 45.0));
+		TestCase.assertEquals(32733, UtmZoneTransform.epsg(15.0, -30.0));
+		TestCase.assertEquals(UtmZoneTransform.EPSG_UPS_NORTH,
+				UtmZoneTransform.epsg(0.0, 85.0));
+		TestCase.assertEquals(UtmZoneTransform.EPSG_UPS_SOUTH,
+				UtmZoneTransform.epsg(0.0, -85.0));
+		TestCase.assertEquals(UtmZoneTransform.NO_ZONE,
+				UtmZoneTransform.epsg(Double.NaN, 0.0));
+		TestCase.assertEquals(UtmZoneTransform.NO_ZONE,
+				UtmZoneTransform.epsg(0.0, 95.0));
+
+		int count = 1000;
+		double[] coordinates = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			coordinates[i * 2] = -180.0 + (i * 137.0) % 360.0;
+			coordinates[i * 2 + 1] = -89.5 + (i * 61.0) % 179.0;
+		}
+		coordinates[10] = Double.NaN;
+
+		UtmZoneTransform zoneTransform = new UtmZoneTransform();
+		UtmZoneTransform.Result result = zoneTransform.transform(coordinates);
+		double[] transformed = result.getCoordinates();
+		int[] codes = result.getCodes();
+		TestCase.assertEquals(count, codes.length);
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		for (int i = 0; i < count; i++) {
+			double longitude = coordinates[i * 2];
+			double latitude = coordinates[i * 2 + 1];
+			int code = UtmZoneTransform.epsg(longitude, latitude);
+			TestCase.assertEquals(code, codes[i]);
+			if (code == UtmZoneTransform.NO_ZONE) {
+				TestCase.assertTrue(Double.isNaN(transformed[i * 2]));
+				TestCase.assertTrue(Double.isNaN(transformed[i * 2 + 1]));
+			} else {
+				double[] expected = wgs84.getTransformation(code)
+						.transform(longitude, latitude);
+				TestCase.assertEquals(expected[0], transformed[i * 2], 1e-6);
+				TestCase.assertEquals(expected[1], transformed[i * 2 + 1],
+						1e-6);
+				TestCase.assertSame(zoneTransform.getTransform(code),
+						zoneTransform.getTransform(code));
+			}
+		}
+		TestCase.assertEquals(UtmZoneTransform.NO_ZONE, codes[5]);
+
+		double[] inPlace = coordinates.clone();
+		TestCase.assertTrue(Arrays.equals(codes,
+				zoneTransform.transform(inPlace, inPlace)));
+		TestCase.assertTrue(Arrays.equals(transformed, inPlace));
+
+		// Longitudes outside [-180, 180) transform within their chosen zone
+		double[] wrapped = zoneTransform
+				.transform(new double[] { 190.0, 10.0, -190.0, -10.0 })
+				.getCoordinates();
+		double[] normalized = zoneTransform
+				.transform(new double[] { -170.0, 10.0, 170.0, -10.0 })
+				.getCoordinates();
+		TestCase.assertEquals(UtmZoneTransform.epsg(-170.0, 10.0),
+				UtmZoneTransform.epsg(190.0, 10.0));
+		TestCase.assertEquals(UtmZoneTransform.epsg(170.0, -10.0),
+				UtmZoneTransform.epsg(-190.0, -10.0));
+		for (int i = 0; i < normalized.length; i++) {
+			TestCase.assertEquals(normalized[i], wrapped[i], 1e-6);
+		}
+
+	}
+
+	/**
+	 * Test three dimensional transforms with ellipsoidal heights
+	 */
+	@Test
+	public void testHeights() {
+
+		Projection geographic3D = ProjectionFactory.getProjection(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM_GEOGRAPHICAL_3D);
+		Projection geocentric = ProjectionFactory.getProjection("TEST", 4978,
+				"+proj=geocent +datum=WGS84 +units=m +no_defs");
+
+		ProjectionTransform transform = geographic3D
+				.getTransformation(geocentric);
+
+		double[] xyz = transform.transform(0.0, 0.0, 100.0);
+		TestCase.assertEquals(6378137.0 + 100.0, xyz[0], 0.0001);
+		TestCase.assertEquals(0.0, xyz[1], 0.0001);
+		TestCase.assertEquals(0.0, xyz[2], 0.0001);
+
+		// Heights through a 7 parameter datum shift
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection britishNationalGrid = ProjectionFactory.getProjection(27700);
+
+		ProjectionTransform datumTransform = wgs84
+				.getTransformation(britishNationalGrid);
+		ProjectionTransform inverseTransform = datumTransform
+				.getInverseTransformation();
+
+		double[] coordinates = new double[] { -1.5, 52.5, 100.0, 0.1, 51.5,
+				-25.0, -3.2, 55.9, 1500.0 };
+		double[] transformed = datumTransform.transform(coordinates, 3);
+		double[] inverse = inverseTransform.transform(transformed, 3);
+
+		for (int i = 0; i < coordinates.length; i += 3) {
+
+			// Heights slightly shift the horizontal datum transform
+			double[] transformed2D = datumTransform
+					.transform(coordinates[i], coordinates[i + 1]);
+			TestCase.assertEquals(transformed2D[0], transformed[i], 0.1);
+			TestCase.assertEquals(transformed2D[1], transformed[i + 1], 0.1);
+
+			// Height changes between the datums
+			TestCase.assertTrue(
+					Math.abs(coordinates[i + 2] - transformed[i + 2]) > 1.0);
+
+			TestCase.assertEquals(coordinates[i], inverse[i], 0.000001);
+			TestCase.assertEquals(coordinates[i + 1], inverse[i + 1],
+					0.000001);
+			TestCase.assertEquals(coordinates[i + 2], inverse[i + 2], 0.001);
+		}
+
+		ProjCoordinate coordinate = datumTransform
+				.transform(new ProjCoordinate(-1.5, 52.5, 100.0));
+		TestCase.assertEquals(transformed[0], coordinate.x, 0.0);
+		TestCase.assertEquals(transformed[1], coordinate.y, 0.0);
+		TestCase.assertEquals(transformed[2], coordinate.z, 0.0);
+
+	}
+
+	/**
+	 * Test transform pipelines
+	 */
+	@Test
+	public void testPipeline() {
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		Projection utm = ProjectionFactory.getProjection(32632);
+
+		ProjectionPipeline pipeline = ProjectionPipeline.create(utm, wgs84,
+				webMercator);
+		TestCase.assertEquals(2, pipeline.size());
+		TestCase.assertEquals(utm, pipeline.getFromProjection());
+		TestCase.assertEquals(webMercator, pipeline.getToProjection());
+
+		double[] coordinates = new double[] { 500000.0, 5000000.0, 650000.0,
+				5300000.0, 300000.0, 4500000.0 };
+
+		double[] expected = wgs84.getTransformation(webMercator).transform(
+				utm.getTransformation(wgs84).transform(coordinates, 2), 2);
+		pipeline.setBlockSize(2);
+		double[] transformed = pipeline.transform(coordinates, 2);
+		for (int i = 0; i < coordinates.length; i++) {
+			TestCase.assertEquals(expected[i], transformed[i], 0.0);
+		}
+
+		// Identity and inverse pair elimination
+		ProjectionTransform toWebMercator = wgs84
+				.getTransformation(webMercator);
+		ProjectionPipeline cancelled = ProjectionPipeline.create(
+				wgs84.getTransformation(wgs84), toWebMercator,
+				toWebMercator.getInverseTransformation(),
+				wgs84.getTransformation(utm));
+		TestCase.assertEquals(1, cancelled.size());
+		TestCase.assertEquals(wgs84, cancelled.getFromProjection());
+		TestCase.assertEquals(utm, cancelled.getToProjection());
+
+		ProjectionPipeline identity = ProjectionPipeline.create(wgs84,
+				webMercator, utm, webMercator, wgs84);
+		TestCase.assertTrue(identity.isIdentity());
+		double[] copy = identity.transform(coordinates, 2);
+		for (int i = 0; i < coordinates.length; i++) {
+			TestCase.assertEquals(coordinates[i], copy[i], 0.0);
+		}
+
+		ProjectionPipeline inverse = pipeline.getInversePipeline();
+		TestCase.assertEquals(webMercator, inverse.getFromProjection());
+		TestCase.assertEquals(utm, inverse.getToProjection());
+		double[] roundTrip = inverse.transform(transformed, 2);
+		for (int i = 0; i < coordinates.length; i++) {
+			TestCase.assertEquals(coordinates[i], roundTrip[i], 0.001);
+		}
+
+		try {
+			ProjectionPipeline.create(toWebMercator, toWebMercator);
+			TestCase.fail("Disconnected pipeline did not fail");
+		} catch (ProjectionException e) {
+			// pass
+		}
+
+	}
+
+	/**
+	 * Test the cached bidirectional inverse transformation pair
+	 */
+	@Test
+	public void testInverse() {
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection utm = ProjectionFactory.getProjection(32632);
+
+		ProjectionTransform wgs84ToUtm = wgs84.getTransformation(utm);
+		ProjectionTransform utmToWgs84 = wgs84ToUtm.getInverseTransformation();
+		TestCase.assertEquals(utm, utmToWgs84.getFromProjection());
+		TestCase.assertEquals(wgs84, utmToWgs84.getToProjection());
+		TestCase.assertSame(utmToWgs84, wgs84ToUtm.getInverseTransformation());
+		TestCase.assertSame(wgs84ToUtm, utmToWgs84.getInverseTransformation());
+
+		// Separately created transforms have their own inverse
+		ProjectionTransform other = wgs84.getTransformation(utm);
+		TestCase.assertNotSame(utmToWgs84, other.getInverseTransformation());
+
+		// Copies for other threads are distinct from the shared inverse
+		ProjectionTransform copy = new ProjectionTransform(utmToWgs84);
+		TestCase.assertNotSame(utmToWgs84, copy);
+		TestCase.assertNotSame(utmToWgs84, copy.getInverseTransformation()
+				.getInverseTransformation());
+
+		double[] coordinates = new double[] { 9.0, 48.0, 11.5, 52.5 };
+		double[] projected = wgs84ToUtm.transform(coordinates, 2);
+		double[] geographic = utmToWgs84.transform(projected, 2);
+		double[] copied = copy.transform(projected, 2);
+		for (int i = 0; i < coordinates.length; i++) {
+			TestCase.assertEquals(coordinates[i], geographic[i], 0.000001);
+			TestCase.assertEquals(geographic[i], copied[i], 0.0);
+		}
+
+	}
+
+	/**
+	 * Test identity transforms between equivalent projections
+	 * 
+	 * @throws IOException
+	 *             upon definition read failure
+	 */
+	@Test
+	public void testEquivalent() throws IOException {
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection crs84 = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_OGC, ProjectionConstants.OGC_CRS84);
+		Projection wgs843D = ProjectionFactory.getProjection(
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM_GEOGRAPHICAL_3D);
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		Projection googleMercator = ProjectionFactory.getProjection(900913);
+		Projection reordered = ProjectionFactory.getProjection("TEST", 3857,
+				"+proj=merc +lon_0=0 +k=1 +x_0=0 +y_0=0 +a=6378137 +b=6378137 "
+						+ "+lat_ts=0 +nadgrids=@null +units=m +no_defs");
+		Projection nad83 = ProjectionFactory.getProjection(4269);
+
+		TestCase.assertTrue(wgs84.isEquivalent(crs84));
+		TestCase.assertTrue(wgs84.isEquivalent(wgs843D));
+		TestCase.assertTrue(webMercator.isEquivalent(googleMercator));
+		TestCase.assertTrue(webMercator.isEquivalent(reordered));
+		TestCase.assertFalse(wgs84.isEquivalent(webMercator));
+		TestCase.assertFalse(wgs84.isEquivalent(nad83));
+
+		ProjectionTransform transform = wgs84.getTransformation(crs84);
+		TestCase.assertTrue(transform.isIdentity());
+		TestCase.assertFalse(transform.isSameProjection());
+		TestCase.assertTrue(
+				webMercator.getTransformation(googleMercator).isIdentity());
+		TestCase.assertFalse(wgs84.getTransformation(webMercator).isIdentity());
+
+		double[] coordinates = new double[] { -110.0, 75.0, 95.0, -20.0 };
+		double[] transformed = transform.transform(coordinates, 2);
+		for (int i = 0; i < coordinates.length; i++) {
+			TestCase.assertEquals(coordinates[i], transformed[i], 0.0);
+		}
+
+		ProjCoordinate coordinate = transform
+				.transform(new ProjCoordinate(-110.0, 75.0, 10.0));
+		TestCase.assertEquals(-110.0, coordinate.x, 0.0);
+		TestCase.assertEquals(75.0, coordinate.y, 0.0);
+		TestCase.assertEquals(10.0, coordinate.z, 0.0);
+
+		ProjectionPipeline pipeline = ProjectionPipeline.create(
+				wgs84.getTransformation(webMercator),
+				googleMercator.getTransformation(crs84));
+		TestCase.assertTrue(pipeline.isIdentity());
+
+		// Converted well-known text without parameters is only equivalent
+		// when the projection fingerprint is complete
+		String definition = "PROJCS[\"NAD83(CSRS98) / New Brunswick Stereo\","
+				+ "GEOGCS[\"NAD83(CSRS98)\","
+				+ "DATUM[\"NAD83_Canadian_Spatial_Reference_System\","
+				+ "SPHEROID[\"GRS 1980\",6378137,298.257222101],"
+				+ "TOWGS84[0,0,0,0,0,0,0]],PRIMEM[\"Greenwich\",0],"
+				+ "UNIT[\"degree\",0.0174532925199433]],"
+				+ "PROJECTION[\"Oblique_Stereographic\"],"
+				+ "PARAMETER[\"latitude_of_origin\",46.5],"
+				+ "PARAMETER[\"central_meridian\",-66.5],"
+				+ "PARAMETER[\"scale_factor\",0.999912],"
+				+ "PARAMETER[\"false_easting\",2500000],"
+				+ "PARAMETER[\"false_northing\",7500000],"
+				+ "UNIT[\"metre\",1]]";
+		Projection stereo1 = new Projection("TEST", 1,
+				CRSParser.convert(CRSReader.read(definition)));
+		Projection stereo2 = new Projection("TEST", 2,
+				CRSParser.convert(CRSReader.read(definition)));
+		TestCase.assertFalse(CRSFingerprint.isComplete(stereo1.getCrs()));
+		TestCase.assertTrue(stereo1.isEquivalent(stereo1));
+		TestCase.assertFalse(stereo1.isEquivalent(stereo2));
+		TestCase.assertFalse(stereo1.getTransformation(stereo2).isIdentity());
+		String geographicDefinition = "GEOGCS[\"WGS 84\","
+				+ "DATUM[\"WGS_1984\",SPHEROID[\"WGS 84\",6378137,"
+				+ "298.257223563]],PRIMEM[\"Greenwich\",0],"
+				+ "UNIT[\"degree\",0.0174532925199433]]";
+		Projection geographic1 = new Projection("TEST", 3,
+				CRSParser.convert(CRSReader.read(geographicDefinition)));
+		Projection geographic2 = new Projection("TEST", 4,
+				CRSParser.convert(CRSReader.read(geographicDefinition)));
+		TestCase.assertTrue(CRSFingerprint.isComplete(geographic1.getCrs()));
+		TestCase.assertTrue(geographic1.isEquivalent(geographic2));
+
+	}
+
+	/**
+	 * Test simplifying line transforms
+	 */
+	@Test
+	public void testSimplify() {
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR);
+		GeometryTransform geometryTransform = new GeometryTransform(
+				transform);
+
+		// Bent line with meter scale noise
+		int count = 2001;
+		double[] line = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			line[i * 2] = -100.0 + i * 0.01;
+			line[i * 2 + 1] = 45.0 - Math.abs(i - 1000) * 0.005
+					+ (i % 2 == 0 ? 0.00001 : -0.00001);
+		}
+		double[] full = transform.transform(line, 2);
+
+		double tolerance = 100.0;
+		double[] simplified = geometryTransform.simplify(line, tolerance);
+		TestCase.assertTrue(simplified.length >= 6);
+		TestCase.assertTrue(simplified.length < 100);
+		TestCase.assertEquals(full[0], simplified[0], 0.000001);
+		TestCase.assertEquals(full[1], simplified[1], 0.000001);
+		TestCase.assertEquals(full[full.length - 2],
+				simplified[simplified.length - 2], 0.000001);
+		TestCase.assertEquals(full[full.length - 1],
+				simplified[simplified.length - 1], 0.000001);
+
+		// Bend vertex is kept
+		boolean bend = false;
+		for (int i = 0; i < simplified.length; i += 2) {
+			bend = bend || (Math.abs(simplified[i] - full[2000]) < 0.000001
+					&& Math.abs(simplified[i + 1] - full[2001]) < 0.000001);
+		}
+		TestCase.assertTrue(bend);
+
+		// All vertices within tolerance of the simplified line
+		for (int i = 0; i < count; i++) {
+			double minDistance = Double.MAX_VALUE;
+			for (int j = 2; j < simplified.length; j += 2) {
+				minDistance = Math.min(minDistance,
+						segmentDistance(full[i * 2], full[i * 2 + 1],
+								simplified[j - 2], simplified[j - 1],
+								simplified[j], simplified[j + 1]));
+			}
+			TestCase.assertTrue(minDistance <= 2 * tolerance);
+		}
+
+		// In place with an offset
+		double[] buffer = new double[line.length + 2];
+		System.arraycopy(line, 0, buffer, 2, line.length);
+		int simplifiedCount = geometryTransform.simplify(buffer, 2, count,
+				tolerance, buffer, 2);
+		TestCase.assertEquals(simplified.length / 2, simplifiedCount);
+		for (int i = 0; i < simplified.length; i++) {
+			TestCase.assertEquals(simplified[i], buffer[i + 2], 0.0);
+		}
+
+		// Zero tolerance transforms every vertex
+		TestCase.assertTrue(
+				Arrays.equals(full, geometryTransform.simplify(line, 0.0)));
+
+	}
+
+	/**
+	 * Test adaptively densified line transforms
+	 */
+	@Test
+	public void testDensify() {
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(3413);
+		GeometryTransform geometryTransform = new GeometryTransform(
+				transform);
+
+		// Parallel curving in polar stereographic
+		double[] line = new double[] { -90.0, 70.0, 0.0, 70.0 };
+		double tolerance = 100.0;
+		double[] densified = geometryTransform.densify(line, tolerance);
+		TestCase.assertTrue(densified.length > 20);
+		double[] ends = transform.transform(line, 2);
+		TestCase.assertEquals(ends[0], densified[0], 0.000001);
+		TestCase.assertEquals(ends[1], densified[1], 0.000001);
+		TestCase.assertEquals(ends[2], densified[densified.length - 2],
+				0.000001);
+		TestCase.assertEquals(ends[3], densified[densified.length - 1],
+				0.000001);
+
+		// Projected curve within tolerance of the densified line
+		int samples = 1000;
+		double[] curve = new double[(samples + 1) * 2];
+		for (int i = 0; i <= samples; i++) {
+			curve[i * 2] = -90.0 + 90.0 * i / samples;
+			curve[i * 2 + 1] = 70.0;
+		}
+		curve = transform.transform(curve, 2);
+		for (int i = 0; i <= samples; i++) {
+			double minDistance = Double.MAX_VALUE;
+			for (int j = 2; j < densified.length; j += 2) {
+				minDistance = Math.min(minDistance,
+						segmentDistance(curve[i * 2], curve[i * 2 + 1],
+								densified[j - 2], densified[j - 1],
+								densified[j], densified[j + 1]));
+			}
+			TestCase.assertTrue(minDistance <= 2 * tolerance);
+		}
+
+		// Meridians stay straight, adding no vertices
+		double[] meridian = new double[] { 10.0, 60.0, 10.0, 80.0, 10.0,
+				85.0 };
+		TestCase.assertEquals(meridian.length,
+				geometryTransform.densify(meridian, tolerance).length);
+
+		// Appends to a reused buffer
+		CoordinateBuffer buffer = new CoordinateBuffer(2);
+		buffer.add(1.0, 2.0);
+		int added = geometryTransform.densify(line, 0, 2, tolerance,
+				buffer);
+		TestCase.assertEquals(densified.length / 2, added);
+		TestCase.assertEquals(added + 1, buffer.size());
+		TestCase.assertEquals(1.0, buffer.getX(0), 0.0);
+		TestCase.assertEquals(densified[2], buffer.getX(2), 0.0);
+		TestCase.assertEquals(densified[3], buffer.getY(2), 0.0);
+
+	}
+
+	/**
+	 * Test antimeridian splitting geometry transforms
+	 */
+	@Test
+	public void testAntimeridian() {
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		GeometryTransform geographic = new GeometryTransform(
+				wgs84.getTransformation(wgs84));
+		GeometryTransform webMercator = new GeometryTransform(wgs84
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR));
+
+		// Line crossing east with an unnormalized longitude
+		CoordinateParts parts = geographic.transformLine(
+				new double[] { 160.0, 5.0, 170.0, 10.0, 190.0, 20.0 });
+		TestCase.assertEquals(2, parts.numParts());
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { 160.0, 5.0, 170.0, 10.0, 180.0, 15.0 },
+				parts.getPart(0)));
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { -180.0, 15.0, -170.0, 20.0 },
+				parts.getPart(1)));
+
+		// Line crossing west through a vertex on the antimeridian
+		parts = geographic.transformLine(
+				new double[] { -170.0, 0.0, -180.0, 1.0, 170.0, 2.0 });
+		TestCase.assertEquals(2, parts.numParts());
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { -170.0, 0.0, -180.0, 1.0 }, parts.getPart(0)));
+		TestCase.assertTrue(Arrays.equals(new double[] { 180.0, 1.0, 170.0,
+				2.0 }, parts.getPart(1)));
+
+		// Line without crossing
+		parts = geographic.transformLine(
+				new double[] { -10.0, 0.0, 10.0, 0.0, 540.0, 0.0 });
+		TestCase.assertEquals(1, parts.numParts());
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { -10.0, 0.0, 10.0, 0.0, 180.0, 0.0 },
+				parts.getPart(0)));
+
+		// Ring crossing twice, split into closed parts
+		double[] ring = new double[] { 170.0, -10.0, -170.0, -10.0, -170.0,
+				10.0, 170.0, 10.0, 170.0, -10.0 };
+		parts = geographic.transformRing(ring);
+		TestCase.assertEquals(2, parts.numParts());
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { -180.0, -10.0, -170.0, -10.0, -170.0, 10.0,
+						-180.0, 10.0, -180.0, -10.0 },
+				parts.getPart(0)));
+		TestCase.assertTrue(Arrays.equals(
+				new double[] { 180.0, 10.0, 170.0, 10.0, 170.0, -10.0, 180.0,
+						-10.0, 180.0, 10.0 },
+				parts.getPart(1)));
+
+		// Projected parts end on the world edges
+		parts = webMercator.transformRing(ring);
+		TestCase.assertEquals(2, parts.numParts());
+		TestCase.assertEquals(
+				-ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH,
+				parts.getPart(0)[0], 0.001);
+		TestCase.assertEquals(ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH,
+				parts.getPart(1)[0], 0.001);
+
+		// Ring without crossing
+		parts.clear();
+		TestCase.assertEquals(1, geographic.transformRing(new double[] { 0.0,
+				0.0, 10.0, 0.0, 10.0, 10.0, 0.0, 0.0 }, 0, 4, parts));
+		TestCase.assertEquals(4, parts.getPartSize(0));
+
+		try {
+			new GeometryTransform(webMercator.getTransform()
+					.getInverseTransformation()).transformLine(ring);
+			TestCase.fail("Expected projected source failure");
+		} catch (ProjectionException e) {
+			// pass
+		}
+
+	}
+
+	/**
+	 * Test bulk transform failure modes
+	 */
+	@Test
+	public void testFailureModes() {
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		double[] coordinates = new double[] { 10.0, 50.0, 10.0, 95.0,
+				Double.NaN, 0.0, -20.0, -30.0 };
+		double[] expected = transform.transform(
+				new double[] { 10.0, 50.0, -20.0, -30.0 }, 2);
+
+		// NaN values with the failures recorded
+		double[] transformed = new double[coordinates.length];
+		BitSet failures = transform.transform(coordinates, 0, transformed, 0,
+				2, 4, TransformFailureMode.NAN);
+		TestCase.assertEquals(2, failures.cardinality());
+		TestCase.assertTrue(failures.get(1));
+		TestCase.assertTrue(failures.get(2));
+		TestCase.assertEquals(expected[0], transformed[0], 0.0);
+		TestCase.assertEquals(expected[1], transformed[1], 0.0);
+		TestCase.assertTrue(Double.isNaN(transformed[2]));
+		TestCase.assertTrue(Double.isNaN(transformed[3]));
+		TestCase.assertTrue(Double.isNaN(transformed[4]));
+		TestCase.assertEquals(expected[2], transformed[6], 0.0);
+		TestCase.assertEquals(expected[3], transformed[7], 0.0);
+
+		// Clamped retries, in place and to a separate destination
+		double[] clamped = transform.transform(new double[] { 10.0,
+				ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE }, 2);
+		double[] inPlace = Arrays.copyOf(coordinates, coordinates.length);
+		long[] mask = new long[1];
+		TestCase.assertEquals(1, transform.transform(inPlace, 0, inPlace, 0,
+				2, 4, TransformFailureMode.CLAMP, mask));
+		TestCase.assertEquals(1L << 2, mask[0]);
+		transformed = new double[coordinates.length];
+		TestCase.assertEquals(1, transform.transform(coordinates, 0,
+				transformed, 0, 2, 4, TransformFailureMode.CLAMP, null));
+		for (double[] result : new double[][] { inPlace, transformed }) {
+			TestCase.assertEquals(expected[0], result[0], 0.0);
+			TestCase.assertEquals(clamped[0], result[2], 0.000001);
+			TestCase.assertEquals(clamped[1], result[3], 0.000001);
+			TestCase.assertTrue(Double.isNaN(result[4]));
+			TestCase.assertEquals(expected[3], result[7], 0.000001);
+		}
+
+		// Finite Web Mercator transforms beyond the latitude limits
+		double[] beyond = new double[] { 10.0, 89.0, -20.0, -89.9 };
+		clamped = transform.transform(new double[] { 10.0,
+				ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE, -20.0,
+				ProjectionConstants.WEB_MERCATOR_MIN_LAT_RANGE }, 2);
+		transformed = new double[beyond.length];
+		failures = transform.transform(beyond, 0, transformed, 0, 2, 2,
+				TransformFailureMode.NAN);
+		TestCase.assertEquals(BitSet.valueOf(new long[] { 0b11 }), failures);
+		for (double value : transformed) {
+			TestCase.assertTrue(Double.isNaN(value));
+		}
+		inPlace = Arrays.copyOf(beyond, beyond.length);
+		TestCase.assertEquals(0, transform.transform(inPlace, 0, inPlace, 0,
+				2, 2, TransformFailureMode.CLAMP, null));
+		TestCase.assertEquals(0, transform.transform(beyond, 0, transformed,
+				0, 2, 2, TransformFailureMode.CLAMP, null));
+		for (double[] result : new double[][] { inPlace, transformed }) {
+			for (int i = 0; i < clamped.length; i++) {
+				TestCase.assertEquals(clamped[i], result[i], 0.000001);
+			}
+		}
+
+		// Throwing inverse orthographic points beyond the globe
+		ProjectionTransform inverse = ProjectionFactory
+				.getProjectionByParams(
+						"+proj=ortho +lat_0=0 +lon_0=0 +ellps=WGS84 +units=m +no_defs")
+				.getTransformation(
+						ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		double[] projected = new double[] { 0.0, 0.0, 0.0, 9000000.0, 0.0,
+				0.0, 1000.0, 1000.0, 0.0 };
+		try {
+			inverse.transform(projected, 0, new double[9], 0, 3, 3,
+					TransformFailureMode.THROW);
+			TestCase.fail("Expected inverse orthographic failure");
+		} catch (RuntimeException e) {
+			// pass
+		}
+		transformed = new double[9];
+		failures = inverse.transform(projected, 0, transformed, 0, 3, 3,
+				TransformFailureMode.NAN);
+		TestCase.assertEquals(BitSet.valueOf(new long[] { 0b10 }), failures);
+		TestCase.assertEquals(0.0, transformed[0], 0.000001);
+		TestCase.assertTrue(Double.isNaN(transformed[3]));
+		TestCase.assertTrue(Double.isNaN(transformed[5]));
+		TestCase.assertFalse(Double.isNaN(transformed[6]));
+
+	}
+
+	/**
+	 * Test domain validation, clamping, and wrapping before transforms
+	 */
+	@Test
+	public void testDomains() {
+
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+		ProjectionDomain domain = webMercator.getDomain();
+		TestCase.assertEquals(ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE,
+				domain.getMaxLatitude(), 0.0);
+		TestCase.assertTrue(domain.contains(179.0, 85.0));
+		TestCase.assertFalse(domain.contains(10.0, 86.0));
+		TestCase.assertFalse(domain.contains(190.0, 0.0));
+		TestCase.assertTrue(ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getDomain().contains(-180.0, -90.0));
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(webMercator);
+
+		double[] coordinates = new double[] { 10.0, 50.0, 10.0, 95.0, 190.0,
+				0.0, Double.NaN, 0.0 };
+		double[] expected = transform.transform(new double[] { 10.0, 50.0,
+				10.0, ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE, 180.0,
+				0.0, -170.0, 0.0, -170.0, 85.0 }, 2);
+
+		// Rejected
+		double[] transformed = new double[coordinates.length];
+		BitSet failures = transform.transform(coordinates, 0, transformed, 0,
+				2, 4, ProjectionDomainPolicy.REJECT);
+		TestCase.assertEquals(BitSet.valueOf(new long[] { 0b1110 }),
+				failures);
+		TestCase.assertEquals(expected[0], transformed[0], 0.000001);
+		TestCase.assertEquals(expected[1], transformed[1], 0.000001);
+		for (int i = 2; i < transformed.length; i++) {
+			TestCase.assertTrue(Double.isNaN(transformed[i]));
+		}
+
+		// Clamped in place
+		transformed = Arrays.copyOf(coordinates, coordinates.length);
+		long[] mask = new long[1];
+		TestCase.assertEquals(1, transform.transform(transformed, 0,
+				transformed, 0, 2, 4, ProjectionDomainPolicy.CLAMP, mask));
+		TestCase.assertEquals(1L << 3, mask[0]);
+		TestCase.assertEquals(expected[2], transformed[2], 0.000001);
+		TestCase.assertEquals(expected[3], transformed[3], 0.000001);
+		TestCase.assertEquals(expected[4], transformed[4], 0.000001);
+		TestCase.assertEquals(expected[5], transformed[5], 0.000001);
+
+		// Wrapped over the pole and across the antimeridian
+		transformed = new double[coordinates.length];
+		failures = transform.transform(coordinates, 0, transformed, 0, 2, 4,
+				ProjectionDomainPolicy.WRAP);
+		TestCase.assertEquals(BitSet.valueOf(new long[] { 0b1000 }),
+				failures);
+		TestCase.assertEquals(expected[8], transformed[2], 0.000001);
+		TestCase.assertEquals(expected[9], transformed[3], 0.000001);
+		TestCase.assertEquals(expected[6], transformed[4], 0.000001);
+		TestCase.assertEquals(expected[7], transformed[5], 0.000001);
+
+		// Transverse Mercator longitudes relative to the central meridian
+		ProjectionDomain utm = ProjectionFactory.getProjection(32633)
+				.getDomain();
+		TestCase.assertEquals(-75.0, utm.getMinLongitude(), 0.000001);
+		TestCase.assertEquals(105.0, utm.getMaxLongitude(), 0.000001);
+		TestCase.assertFalse(utm.contains(-100.0, 0.0));
+
+		// Orthographic far side clamped to the horizon
+		ProjectionTransform ortho = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionFactory.getProjectionByParams(
+						"+proj=ortho +lat_0=0 +lon_0=0 +ellps=WGS84 +units=m +no_defs"));
+		double[] farSide = new double[] { 10.0, 10.0, 120.0, 0.0 };
+		transformed = new double[farSide.length];
+		TestCase.assertEquals(1, ortho.transform(farSide, 0, transformed, 0, 2,
+				2, ProjectionDomainPolicy.REJECT, null));
+		TestCase.assertTrue(Double.isNaN(transformed[2]));
+		TestCase.assertEquals(0, ortho.transform(farSide, 0, transformed, 0, 2,
+				2, ProjectionDomainPolicy.CLAMP, null));
+		TestCase.assertEquals(6378137.0, transformed[2], 1.0);
+		TestCase.assertEquals(0.0, transformed[3], 0.000001);
+
+		// Domain policies require longitude latitude degree sources
+		try {
+			transform.getInverseTransformation().transform(farSide, 0,
+					transformed, 0, 2, 2, ProjectionDomainPolicy.REJECT);
+			TestCase.fail("Non-degree source policy did not fail");
+		} catch (ProjectionException e) {
+			// pass
+		}
+
+	}
+
+	/**
+	 * Get the distance from a point to a segment
+	 *
+	 * @param x
+	 *            point x
+	 * @param y
+	 *            point y
+	 * @param x1
+	 *            segment start x
+	 * @param y1
+	 *            segment start y
+	 * @param x2
+	 *            segment end x
+	 * @param y2
+	 *            segment end y
+	 * @return distance
+	 */
+	private static double segmentDistance(double x, double y, double x1,
+			double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double t = ((x - x1) * dx + (y - y1) * dy) / (dx * dx + dy * dy);
+		t = Math.max(0.0, Math.min(1.0, t));
+		return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+	}
+
+}